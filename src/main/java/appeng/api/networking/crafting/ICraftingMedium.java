@@ -41,6 +41,32 @@ public interface ICraftingMedium {
      */
     boolean pushPattern(ICraftingPatternDetails patternDetails, InventoryCrafting table);
 
+    /**
+     * Bulk pushing is opt-in, mediums which do not override this will only ever receive single copies.
+     *
+     * @param patternDetails details
+     *
+     * @return how many copies of the pattern this medium is willing to receive in a single
+     *         {@link #pushPatterns(ICraftingPatternDetails, InventoryCrafting, int)} call.
+     */
+    default int getMaxPatternCopies(ICraftingPatternDetails patternDetails) {
+        return 1;
+    }
+
+    /**
+     * instruct a medium to create several copies of a pattern at once, every slot of the table holds the combined
+     * input of all copies.
+     *
+     * @param patternDetails details
+     * @param table          crafting table, holding the inputs of all copies
+     * @param copies         number of copies, never more than {@link #getMaxPatternCopies(ICraftingPatternDetails)}
+     *
+     * @return if all copies were successfully pushed, all or nothing.
+     */
+    default boolean pushPatterns(ICraftingPatternDetails patternDetails, InventoryCrafting table, int copies) {
+        return copies == 1 && this.pushPattern(patternDetails, table);
+    }
+
     /**
      * @return if this is false, the crafting engine will refuse to send new jobs to this medium.
      */
@@ -61,6 +61,51 @@ public interface IMEInventory<T extends IAEStack<T>> {
      */
     T extractItems(T request, Actionable mode, IActionSource src);
 
+    /**
+     * Store a batch of new items, or simulate the addition of the whole batch.
+     *
+     * By default every stack is injected on its own, inventories which can handle several stacks at once more cheaply
+     * should override this. A simulated batch is only guaranteed to check each stack against the current contents, so
+     * unless an implementation says otherwise, the stacks of a batch may compete for the same space.
+     *
+     * @param input items to add, the list is not modified.
+     * @param type  action type
+     * @param src   action source
+     *
+     * @return the items not added, empty if everything was added.
+     */
+    default IItemList<T> injectItems(final IItemList<T> input, final Actionable type, final IActionSource src) {
+        final IItemList<T> notAdded = this.getChannel().createList();
+        for (final T stack : input) {
+            if (stack != null && stack.getStackSize() > 0) {
+                notAdded.add(this.injectItems(stack.copy(), type, src));
+            }
+        }
+        return notAdded;
+    }
+
+    /**
+     * Extract a batch of items from the ME Inventory.
+     *
+     * By default every stack is extracted on its own, inventories which can handle several stacks at once more cheaply
+     * should override this.
+     *
+     * @param request items to request ( with stack sizes ), the list is not modified.
+     * @param mode    simulate, or perform action?
+     * @param src     action source
+     *
+     * @return the items extracted, empty if nothing could be extracted.
+     */
+    default IItemList<T> extractItems(final IItemList<T> request, final Actionable mode, final IActionSource src) {
+        final IItemList<T> extracted = this.getChannel().createList();
+        for (final T stack : request) {
+            if (stack != null && stack.getStackSize() > 0) {
+                extracted.add(this.extractItems(stack.copy(), mode, src));
+            }
+        }
+        return extracted;
+    }
+
     /**
      * request a full report of all available items, storage.
      *
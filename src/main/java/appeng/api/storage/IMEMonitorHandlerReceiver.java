@@ -49,4 +49,14 @@ public interface IMEMonitorHandlerReceiver<T extends IAEStack<T>> {
      * called when the list updates its contents, this is mostly for handling power events.
      */
     void onListUpdate();
+
+    /**
+     * return true if this listener does not need every change as it happens. Monitors that support it will then merge
+     * all changes of a tick and post them once, with a null action source if they came from several sources.
+     *
+     * @return true if changes may be delivered merged at the end of the tick
+     */
+    default boolean isTickTolerant() {
+        return false;
+    }
 }
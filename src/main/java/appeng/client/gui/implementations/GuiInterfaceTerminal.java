@@ -638,7 +638,7 @@ public class GuiInterfaceTerminal extends AEBaseGui {
             return false;
 
         try {
-            new PatternHelper(stack, w);
+            PatternHelper.fromItemStack(stack, w);
             return false;
         } catch (Throwable ignored) {
             return true;
@@ -384,6 +384,12 @@ public class ContainerMEMonitorable extends AEBaseContainer
         }
     }
 
+    @Override
+    public boolean isTickTolerant() {
+        // only the changed stacks are recorded, the amounts are read from the monitor when syncing.
+        return true;
+    }
+
     @Override
     public void onListUpdate() {
         for (final IContainerListener c : this.listeners) {
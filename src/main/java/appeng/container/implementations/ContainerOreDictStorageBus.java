@@ -1,9 +1,7 @@
 package appeng.container.implementations;
 
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.BitSet;
 
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.entity.player.InventoryPlayer;
@@ -66,27 +64,28 @@ public class ContainerOreDictStorageBus extends ContainerUpgradeable {
             return;
         }
 
-        Set<Integer> oreIDs = new HashSet<>();
+        BitSet oreIDs = new BitSet();
 
         for (IAEItemStack itemStack : cellInv.getAvailableItems(
                 AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList())) {
             OreReference ref = ((AEItemStack) itemStack).getOre().orElse(null);
             if (ref != null) {
-                oreIDs.addAll(ref.getOres());
+                oreIDs.or(ref.getOres());
             }
         }
 
         String oreMatch = "(";
         String append = "";
 
-        for (Iterator<Integer> it = oreIDs.iterator(); it.hasNext();) {
-            int oreID = it.next();
-            if (it.hasNext()) {
+        for (int oreID = oreIDs.nextSetBit(0); oreID >= 0;) {
+            final int next = oreIDs.nextSetBit(oreID + 1);
+            if (next >= 0) {
                 append = ")|(";
             } else {
                 append = ")";
             }
             oreMatch = oreMatch.concat(OreDictionary.getOreName(oreID) + append);
+            oreID = next;
         }
 
         if (oreMatch.equals("(")) {
@@ -109,6 +109,12 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     private boolean useColoredCraftingStatus;
     private boolean disableColoredCableRecipesInJEI = true;
     private int craftingCalculationTimePerTick = 5;
+    private int craftingCalculationParallelism = 0;
+    private int craftingPlanCacheSize = 32;
+    private int craftingCalculationThreads = 4;
+    private boolean packedCellStorage = false;
+    private int storageBusScanSlotsPerTick = 128;
+    private int pathingItemsPerTick = 50000;
     private PowerUnits selectedPowerUnit = PowerUnits.AE;
     private boolean showCraftableTooltip = true;
     private boolean showPlacementPreview = true;
@@ -185,6 +191,16 @@ public final class AEConfig extends Configuration implements IConfigurableObject
                 "Max channel number may not exceed 256").getInt(this.normalChannelCapacity), 256);
         this.denseChannelCapacity = Math.min(this.get("general", "denseChannelCapacity", this.denseChannelCapacity,
                 "Max channel number may not exceed 256").getInt(this.denseChannelCapacity), 256);
+        this.packedCellStorage = this.get("general", "packedCellStorage", this.packedCellStorage,
+                "Stores the content of storage cells as a single packed tag instead of one tag per stored type and count. Cells are converted when they are next modified, converted cells can't be read by versions without this option.")
+                .getBoolean(this.packedCellStorage);
+        this.storageBusScanSlotsPerTick = this.get("general", "storageBusScanSlotsPerTick",
+                this.storageBusScanSlotsPerTick,
+                "How many slots of an external inventory a storage bus checks for outside changes each time it ticks. Slots changed through the network are always checked. 0 checks every slot on every tick.")
+                .getInt(this.storageBusScanSlotsPerTick);
+        this.pathingItemsPerTick = this.get("general", "pathingItemsPerTick", this.pathingItemsPerTick,
+                "How many nodes and connections the channel calculation of a network visits per tick. Larger networks keep booting for several ticks instead of stalling a single one. 0 finishes the calculation in one tick.")
+                .getInt(this.pathingItemsPerTick);
 
         this.setCategoryComment("BlockingMode",
                 "Map of items to not block when blockingmode is enabled.\n[modid]\nmodid:item:metadata(optional,default:0)\nSupports more than one modid, so you can block different things between, for example, gregtech or enderio");
@@ -336,6 +352,18 @@ public final class AEConfig extends Configuration implements IConfigurableObject
             this.craftingCalculationTimePerTick = this
                     .get("craftingCPU", "craftingCalculationTimePerTick", this.craftingCalculationTimePerTick)
                     .getInt(this.craftingCalculationTimePerTick);
+            this.craftingCalculationParallelism = Math.max(0, this
+                    .get("craftingCPU", "craftingCalculationParallelism", this.craftingCalculationParallelism,
+                            "Number of worker threads used to calculate independent branches of a crafting tree in parallel. 0 disables parallel calculation.")
+                    .getInt(this.craftingCalculationParallelism));
+            this.craftingPlanCacheSize = Math.max(0, this
+                    .get("craftingCPU", "craftingPlanCacheSize", this.craftingPlanCacheSize,
+                            "Number of solved crafting plans each network keeps for repeated requests. 0 disables the cache.")
+                    .getInt(this.craftingPlanCacheSize));
+            this.craftingCalculationThreads = Math.max(1, this
+                    .get("craftingCPU", "craftingCalculationThreads", this.craftingCalculationThreads,
+                            "Number of crafting calculations running at the same time. Further requests are queued, those of players ahead of those of machines.")
+                    .getInt(this.craftingCalculationThreads));
         }
 
         this.updatable = true;
@@ -645,6 +673,30 @@ public final class AEConfig extends Configuration implements IConfigurableObject
         return this.craftingCalculationTimePerTick;
     }
 
+    public int getCraftingCalculationParallelism() {
+        return this.craftingCalculationParallelism;
+    }
+
+    public int getCraftingPlanCacheSize() {
+        return this.craftingPlanCacheSize;
+    }
+
+    public int getCraftingCalculationThreads() {
+        return this.craftingCalculationThreads;
+    }
+
+    public boolean isPackedCellStorage() {
+        return this.packedCellStorage;
+    }
+
+    public int getStorageBusScanSlotsPerTick() {
+        return this.storageBusScanSlotsPerTick;
+    }
+
+    public int getPathingItemsPerTick() {
+        return this.pathingItemsPerTick;
+    }
+
     public PowerUnits getSelectedPowerUnit() {
         return this.selectedPowerUnit;
     }
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting;
+
+import java.util.concurrent.RecursiveAction;
+
+import appeng.api.networking.security.IActionSource;
+
+/**
+ * Calculates one child of a {@link CraftingTreeProcess} against private views of the inventory and the availability
+ * check, so it can run concurrently with its siblings. The changes are applied to the shared inventories afterwards by
+ * {@link #commit()}.
+ */
+class CraftingBranch extends RecursiveAction {
+
+    private static final long serialVersionUID = 2715286378402856190L;
+
+    private final CraftingJob job;
+    private final CraftingTreeNode node;
+    private final long amount;
+    private final MECraftingInventory inventory;
+    private final MECraftingInventory availableCheck;
+    private final IActionSource src;
+    private Throwable failure;
+
+    CraftingBranch(final CraftingJob job, final CraftingTreeNode node, final long amount,
+            final MECraftingInventory inv, final MECraftingInventory availableCheck, final IActionSource src) {
+        this.job = job;
+        this.node = node;
+        this.amount = amount;
+        this.inventory = new MECraftingInventory(inv, true, true, false);
+        this.availableCheck = new MECraftingInventory(availableCheck, true, true, false);
+        this.src = src;
+    }
+
+    @Override
+    protected void compute() {
+        final MECraftingInventory previous = this.job.enterBranch(this.availableCheck);
+        try {
+            this.node.request(this.inventory, this.amount, this.src);
+        } catch (final Throwable t) {
+            this.failure = t;
+        } finally {
+            this.job.leaveBranch(previous);
+        }
+    }
+
+    Throwable getFailure() {
+        return this.failure;
+    }
+
+    boolean commit() {
+        return this.inventory.commit(this.src) && this.availableCheck.commit(this.src);
+    }
+
+    /**
+     * Drops what the calculation of this branch left in its subtree, its inventory changes are simply not committed.
+     */
+    void discard() {
+        this.node.setSimulate();
+    }
+}
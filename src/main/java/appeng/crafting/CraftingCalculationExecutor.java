@@ -0,0 +1,105 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import appeng.api.networking.crafting.ICraftingJob;
+import appeng.core.AEConfig;
+
+/**
+ * Runs crafting calculations on a bounded number of threads. Calculations which cannot start right away are queued,
+ * those requested by players ahead of those requested by machines, otherwise in the order they were submitted.
+ */
+public final class CraftingCalculationExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static CraftingCalculationExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong submitted = new AtomicLong();
+
+    private CraftingCalculationExecutor(final int threads) {
+        final ThreadFactory factory = ar -> {
+            final Thread crafting = new Thread(ar, "AE Crafting Calculator");
+            crafting.setDaemon(true);
+            return crafting;
+        };
+
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), factory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized CraftingCalculationExecutor instance() {
+        if (instance == null) {
+            instance = new CraftingCalculationExecutor(AEConfig.instance().getCraftingCalculationThreads());
+        }
+        return instance;
+    }
+
+    /**
+     * Queues the calculation of the given job. Cancelling the returned future before the calculation started removes
+     * it from the queue, cancelling it afterwards interrupts the calculation.
+     */
+    public Future<ICraftingJob> submit(final CraftingJob job) {
+        final QueuedCalculation task = new QueuedCalculation(job, this.submitted.getAndIncrement());
+        this.executor.execute(task);
+        return task;
+    }
+
+    private final class QueuedCalculation extends FutureTask<ICraftingJob> implements Comparable<QueuedCalculation> {
+
+        private final boolean requestedByPlayer;
+        private final long order;
+
+        private QueuedCalculation(final CraftingJob job, final long order) {
+            super(job, job);
+            this.requestedByPlayer = job.isRequestedByPlayer();
+            this.order = order;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+            if (cancelled) {
+                CraftingCalculationExecutor.this.executor.remove(this);
+            }
+
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(final QueuedCalculation o) {
+            if (this.requestedByPlayer != o.requestedByPlayer) {
+                return this.requestedByPlayer ? -1 : 1;
+            }
+
+            return Long.compare(this.order, o.order);
+        }
+    }
+}
@@ -18,14 +18,30 @@
 
 package appeng.crafting;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.base.Stopwatch;
 
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
 import net.minecraft.world.World;
 
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
 import appeng.api.AEApi;
 import appeng.api.config.Actionable;
 import appeng.api.networking.IGrid;
@@ -42,13 +58,19 @@ import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
 import appeng.api.util.DimensionalCoord;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.hooks.TickHandler;
 import appeng.me.cache.GridStorageCache;
+import appeng.util.Platform;
 
 public class CraftingJob implements Runnable, ICraftingJob {
     private static final String LOG_CRAFTING_JOB = "CraftingJob (%s) issued by %s requesting [%s] using %s bytes took %s us";
     private static final String LOG_MACHINE_SOURCE_DETAILS = "Machine[object=%s, %s]";
+    // Upper bound of stacks visited when checking whether the children of a process can be calculated independently.
+    private static final int MAX_BRANCH_SCAN = 1024;
+
+    private static ForkJoinPool branchPool;
 
     private final MECraftingInventory original;
     private final World world;
@@ -66,13 +88,37 @@ public class CraftingJob implements Runnable, ICraftingJob {
     private final IAEItemStack output;
     private boolean simulate = false;
     private MECraftingInventory availableCheck;
+    private final ThreadLocal<MECraftingInventory> branchAvailableCheck = new ThreadLocal<>();
+    private final boolean parallel;
+    private boolean forking;
+    private final CraftingPlanCache planCache;
+    private final int patternVersion;
+    private final boolean cached;
+    private volatile boolean cancelled = false;
     private long bytes = 0;
     private final IActionSource actionSrc;
     private final ICraftingCallback callback;
-    private boolean running = false;
+    private volatile boolean running = false;
     private boolean done = false;
     private int time;
-    private int incTime;
+    // shared by every worker calculating a branch of this job.
+    private final AtomicInteger incTime = new AtomicInteger();
+    private final ForkJoinPool.ManagedBlocker pauseBlocker = new ForkJoinPool.ManagedBlocker() {
+        @Override
+        public boolean block() throws InterruptedException {
+            synchronized (CraftingJob.this.monitor) {
+                while (!CraftingJob.this.running) {
+                    CraftingJob.this.monitor.wait();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return CraftingJob.this.running;
+        }
+    };
     private CraftingTreeNode rootNode;
 
     private World wrapWorld(final World w) {
@@ -81,6 +127,11 @@ public class CraftingJob implements Runnable, ICraftingJob {
 
     public CraftingJob(final World w, final IGrid grid, final IActionSource actionSrc, final IAEItemStack what,
             final ICraftingCallback callback) {
+        this(w, grid, actionSrc, what, callback, null);
+    }
+
+    public CraftingJob(final World w, final IGrid grid, final IActionSource actionSrc, final IAEItemStack what,
+            final ICraftingCallback callback, final CraftingPlanCache planCache) {
         this.world = this.wrapWorld(w);
         this.output = what.copy();
         this.actionSrc = actionSrc;
@@ -96,6 +147,31 @@ public class CraftingJob implements Runnable, ICraftingJob {
         this.rootNode = this.getCraftingTree(cc, what);
         this.setTree(this.rootNode);
         this.availableCheck = null;
+        this.parallel = AEConfig.instance().getCraftingCalculationParallelism() > 0;
+        this.planCache = planCache;
+        this.patternVersion = planCache != null ? planCache.getPatternVersion() : 0;
+        this.cached = false;
+    }
+
+    /**
+     * Creates an already completed job for a plan taken from the {@link CraftingPlanCache}. The tree is shared with
+     * other jobs using the same plan and must not be calculated again.
+     */
+    CraftingJob(final World w, final IActionSource actionSrc, final IAEItemStack what,
+            final ICraftingCallback callback, final CraftingTreeNode tree, final long bytes) {
+        this.world = this.wrapWorld(w);
+        this.output = what.copy();
+        this.actionSrc = actionSrc;
+        this.callback = callback;
+        this.cc = null;
+        this.original = null;
+        this.rootNode = tree;
+        this.setTree(tree);
+        this.bytes = bytes;
+        this.parallel = false;
+        this.planCache = null;
+        this.patternVersion = 0;
+        this.cached = true;
     }
 
     private CraftingTreeNode getCraftingTree(final ICraftingGrid cc, final IAEItemStack what) {
@@ -103,15 +179,34 @@ public class CraftingJob implements Runnable, ICraftingJob {
     }
 
     void refund(final IAEItemStack o) {
-        this.availableCheck.injectItems(o, Actionable.MODULATE, this.actionSrc);
+        this.getAvailableCheck().injectItems(o, Actionable.MODULATE, this.actionSrc);
     }
 
     IAEItemStack checkUse(final IAEItemStack available) {
-        return this.availableCheck.extractItems(available, Actionable.MODULATE, this.actionSrc);
+        return this.getAvailableCheck().extractItems(available, Actionable.MODULATE, this.actionSrc);
     }
 
     IAEItemStack checkAvailable(final IAEItemStack available) {
-        return this.availableCheck.extractItems(available, Actionable.SIMULATE, this.actionSrc);
+        return this.getAvailableCheck().extractItems(available, Actionable.SIMULATE, this.actionSrc);
+    }
+
+    private MECraftingInventory getAvailableCheck() {
+        final MECraftingInventory branch = this.branchAvailableCheck.get();
+        return branch != null ? branch : this.availableCheck;
+    }
+
+    MECraftingInventory enterBranch(final MECraftingInventory availableCheck) {
+        final MECraftingInventory previous = this.branchAvailableCheck.get();
+        this.branchAvailableCheck.set(availableCheck);
+        return previous;
+    }
+
+    void leaveBranch(final MECraftingInventory previous) {
+        if (previous == null) {
+            this.branchAvailableCheck.remove();
+        } else {
+            this.branchAvailableCheck.set(previous);
+        }
     }
 
     void addTask(IAEItemStack what, final long crafts, final ICraftingPatternDetails details, final int depth) {
@@ -129,23 +224,21 @@ public class CraftingJob implements Runnable, ICraftingJob {
 
     @Override
     public void run() {
+        if (this.cached) {
+            AELog.craftingDebug("crafting job reused a cached plan");
+            this.finish();
+            return;
+        }
+
         try {
             try {
                 TickHandler.instance().registerCraftingSimulation(this.world, this);
                 this.handlePausing();
 
-                final MECraftingInventory craftingInventory = new MECraftingInventory(this.original, true, false, true);
-                craftingInventory.ignore(this.output);
-
-                this.availableCheck = new MECraftingInventory(this.original, false, false, false);
-                craftingTreeWatch.reset().start();
-                this.getTree().request(craftingInventory, this.output.getStackSize(), this.actionSrc);
-                craftingTreeWatch.stop();
-                this.getTree().dive(this);
+                this.calculateTree();
 
-                for (final String s : this.opsAndMultiplier.keySet()) {
-                    final TwoIntegers ti = this.opsAndMultiplier.get(s);
-                    AELog.crafting(s + " * " + ti.times + " = " + (ti.perOp * ti.times));
+                if (this.planCache != null) {
+                    this.planCache.store(this.output, this.patternVersion, this.getTree(), this.bytes, this.original);
                 }
 
                 if (actionSrc.player().isPresent()) {
@@ -158,21 +251,8 @@ public class CraftingJob implements Runnable, ICraftingJob {
 
                 try {
                     if (actionSrc.player().isPresent()) {
-                        final MECraftingInventory craftingInventory = new MECraftingInventory(this.original, true,
-                                false, true);
-                        craftingInventory.ignore(this.output);
-
                         this.getTree().setSimulate();
-                        this.availableCheck = new MECraftingInventory(this.original, false, false, false);
-                        craftingTreeWatch.reset().start();
-                        this.getTree().request(craftingInventory, this.output.getStackSize(), this.actionSrc);
-                        craftingTreeWatch.stop();
-                        this.getTree().dive(this);
-
-                        for (final String s : this.opsAndMultiplier.keySet()) {
-                            final TwoIntegers ti = this.opsAndMultiplier.get(s);
-                            AELog.crafting(s + " * " + ti.times + " = " + (ti.perOp * ti.times));
-                        }
+                        this.calculateTree();
 
                         this.logCraftingJob("simulated, failed", craftingTreeWatch);
                     } else {
@@ -202,9 +282,205 @@ public class CraftingJob implements Runnable, ICraftingJob {
         this.finish();
     }
 
+    private void calculateTree() throws CraftBranchFailure, InterruptedException {
+        try {
+            this.requestTree(this.parallel);
+        } catch (final ParallelCalculationAbort abort) {
+            AELog.craftingDebug("parallel crafting calculation aborted, calculating serially");
+
+            this.rootNode = this.getCraftingTree(this.cc, this.output);
+            this.setTree(this.rootNode);
+            this.requestTree(false);
+        }
+    }
+
+    private void requestTree(final boolean parallel) throws CraftBranchFailure, InterruptedException {
+        this.forking = parallel;
+
+        final MECraftingInventory craftingInventory = new MECraftingInventory(this.original, true, false, true);
+        craftingInventory.ignore(this.output);
+
+        this.availableCheck = new MECraftingInventory(this.original, false, false, false);
+        craftingTreeWatch.reset().start();
+        this.getTree().request(craftingInventory, this.output.getStackSize(), this.actionSrc);
+        craftingTreeWatch.stop();
+        this.getTree().dive(this);
+
+        for (final String s : this.opsAndMultiplier.keySet()) {
+            final TwoIntegers ti = this.opsAndMultiplier.get(s);
+            AELog.crafting(s + " * " + ti.times + " = " + (ti.perOp * ti.times));
+        }
+    }
+
+    /**
+     * @return true if the children of a process should be calculated in parallel. This is only the case if none of the
+     *         children can reach an item that another child can reach as well, so the order in which they are
+     *         calculated cannot change the result.
+     */
+    boolean canRequestInParallel(final Collection<CraftingTreeNode> children) {
+        if (children.size() < 2) {
+            return false;
+        }
+
+        final Set<Item> seen = new ReferenceOpenHashSet<>();
+        int craftable = 0;
+        for (final CraftingTreeNode child : children) {
+            final Set<Item> reachable = this.getReachableItems(child.getStack(1));
+            if (reachable == null) {
+                return false;
+            }
+            for (final Item item : reachable) {
+                if (!seen.add(item)) {
+                    return false;
+                }
+            }
+            if (!this.cc.getCraftingFor(child.getStack(1), null, -1, this.world).isEmpty()) {
+                craftable++;
+            }
+        }
+
+        // Leaves are too cheap to be worth a separate task.
+        return craftable >= 2;
+    }
+
+    private Set<Item> getReachableItems(final IAEItemStack what) {
+        final Set<Item> items = new ReferenceOpenHashSet<>();
+        final Set<IAEItemStack> visited = new HashSet<>();
+        final Queue<IAEItemStack> queue = new ArrayDeque<>();
+        queue.add(what);
+
+        while (!queue.isEmpty()) {
+            final IAEItemStack stack = queue.poll();
+            if (!visited.add(stack)) {
+                continue;
+            }
+            if (visited.size() > MAX_BRANCH_SCAN) {
+                return null;
+            }
+
+            items.add(stack.getItem());
+            for (final ICraftingPatternDetails details : this.cc.getCraftingFor(stack, null, -1, this.world)) {
+                for (final IAEItemStack out : details.getOutputs()) {
+                    if (out != null) {
+                        items.add(out.getItem());
+                    }
+                }
+
+                final IAEItemStack[] inputs = details.getInputs();
+                for (int x = 0; x < inputs.length; x++) {
+                    final IAEItemStack in = inputs[x];
+                    if (in == null) {
+                        continue;
+                    }
+
+                    queue.add(in);
+                    if (in.getItem().hasContainerItem(in.getDefinition())) {
+                        final ItemStack container = Platform.getContainerItem(in.createItemStack());
+                        if (!container.isEmpty()) {
+                            items.add(container.getItem());
+                        }
+                    }
+                    if (details.canSubstitute()) {
+                        queue.addAll(details.getSubstituteInputs(x));
+                    }
+                }
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Requests the children of a process in parallel. Every child works on its own view of the inventories, the
+     * changes are applied in the same order as a serial calculation would have made them. A child that could not be
+     * crafted fails the request like it would serially, anything else aborts the parallel calculation.
+     */
+    void requestInParallel(final Object2LongMap<CraftingTreeNode> children, final long amountOfTimes,
+            final MECraftingInventory inv, final IActionSource src) throws CraftBranchFailure, InterruptedException {
+        final ForkJoinPool pool = getBranchPool();
+        final MECraftingInventory check = this.getAvailableCheck();
+        final List<CraftingBranch> branches = new ArrayList<>(children.size());
+        for (final Object2LongMap.Entry<CraftingTreeNode> entry : children.object2LongEntrySet()) {
+            branches.add(new CraftingBranch(this, entry.getKey(), entry.getLongValue() * amountOfTimes, inv, check,
+                    src));
+        }
+
+        final boolean inPool = Thread.currentThread() instanceof ForkJoinWorkerThread worker
+                && worker.getPool() == pool;
+        for (int i = branches.size() - 1; i > 0; i--) {
+            if (inPool) {
+                branches.get(i).fork();
+            } else {
+                pool.execute(branches.get(i));
+            }
+        }
+        branches.get(0).invoke();
+
+        boolean interrupted = false;
+        for (final CraftingBranch branch : branches) {
+            if (inPool || interrupted) {
+                branch.quietlyJoin();
+                continue;
+            }
+            try {
+                branch.get();
+            } catch (final InterruptedException e) {
+                this.cancelled = true;
+                interrupted = true;
+                branch.quietlyJoin();
+            } catch (final ExecutionException e) {
+                // Branches capture their own failures.
+            }
+        }
+
+        for (final CraftingBranch branch : branches) {
+            if (branch.getFailure() instanceof InterruptedException) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            this.cancelled = true;
+            throw new InterruptedException();
+        }
+
+        for (int i = 0; i < branches.size(); i++) {
+            final CraftingBranch branch = branches.get(i);
+            final Throwable failure = branch.getFailure();
+            if (failure != null && !(failure instanceof CraftBranchFailure)) {
+                throw failure instanceof ParallelCalculationAbort abort ? abort : new ParallelCalculationAbort(failure);
+            }
+            if (!branch.commit()) {
+                throw new ParallelCalculationAbort(new IllegalStateException("Conflicting crafting branches"));
+            }
+
+            if (failure != null) {
+                // a serial calculation would have stopped here, so the later children must not keep their results.
+                for (int j = i + 1; j < branches.size(); j++) {
+                    branches.get(j).discard();
+                }
+                throw (CraftBranchFailure) failure;
+            }
+        }
+    }
+
+    private static synchronized ForkJoinPool getBranchPool() {
+        if (branchPool == null) {
+            final ClassLoader classLoader = CraftingJob.class.getClassLoader();
+            branchPool = new ForkJoinPool(Math.max(1, AEConfig.instance().getCraftingCalculationParallelism()),
+                    pool -> {
+                        final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+                                .newThread(pool);
+                        worker.setName("AE Crafting Calculator Worker-" + worker.getPoolIndex());
+                        worker.setContextClassLoader(classLoader);
+                        return worker;
+                    }, null, false);
+        }
+        return branchPool;
+    }
+
     void handlePausing() throws InterruptedException {
-        if (!this.actionSrc.player().isPresent() && this.incTime > 100) {
-            this.incTime = 0;
+        if (!this.actionSrc.player().isPresent() && this.incTime.incrementAndGet() > 100) {
+            this.incTime.set(0);
             synchronized (this.monitor) {
                 if (this.tickSpreadingWatch.elapsed(TimeUnit.MICROSECONDS) > this.time) {
                     this.running = false;
@@ -216,14 +492,18 @@ public class CraftingJob implements Runnable, ICraftingJob {
                         this.tickSpreadingWatch.stop();
                     }
 
-                    this.monitor.notify();
+                    this.monitor.notifyAll();
                 }
 
                 if (!this.running) {
                     AELog.craftingDebug("crafting job will now sleep");
 
-                    while (!this.running) {
-                        this.monitor.wait();
+                    try {
+                        // lets the branch pool make up for its sleeping workers.
+                        ForkJoinPool.managedBlock(this.pauseBlocker);
+                    } catch (final InterruptedException e) {
+                        this.cancelled = true;
+                        throw e;
                     }
 
                     AELog.craftingDebug("crafting job now active");
@@ -232,10 +512,11 @@ public class CraftingJob implements Runnable, ICraftingJob {
         }
 
         if (Thread.interrupted()) {
+            this.cancelled = true;
+        }
+        if (this.cancelled) {
             throw new InterruptedException();
         }
-
-        this.incTime++;
     }
 
     private void finish() {
@@ -248,7 +529,7 @@ public class CraftingJob implements Runnable, ICraftingJob {
         synchronized (this.monitor) {
             this.running = false;
             this.done = true;
-            this.monitor.notify();
+            this.monitor.notifyAll();
         }
     }
 
@@ -278,6 +559,10 @@ public class CraftingJob implements Runnable, ICraftingJob {
         return this.done;
     }
 
+    boolean isRequestedByPlayer() {
+        return this.actionSrc.player().isPresent();
+    }
+
     World getWorld() {
         return this.world;
     }
@@ -295,7 +580,7 @@ public class CraftingJob implements Runnable, ICraftingJob {
             if (!this.actionSrc.player().isPresent()) {
                 this.tickSpreadingWatch.reset();
                 this.tickSpreadingWatch.start();
-                this.monitor.notify();
+                this.monitor.notifyAll();
             }
             this.running = true;
         }
@@ -303,6 +588,10 @@ public class CraftingJob implements Runnable, ICraftingJob {
         return true;
     }
 
+    boolean isForking() {
+        return this.forking;
+    }
+
     void addBytes(final long crafts) {
         this.bytes += crafts;
     }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.world.World;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
+import appeng.api.networking.crafting.ICraftingCallback;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+
+/**
+ * Remembers the solved crafting trees of a grid, so repeated requests for the same item and amount can skip the tree
+ * construction.
+ * <p>
+ * A plan is only reused while the pattern set it was calculated with is still current and the storage would lead the
+ * calculation to the same result. The calculation only ever looks at the items of its tree nodes, so this is the case
+ * if each of them either is still stocked well enough to cover everything the tree could have asked for, or is stocked
+ * exactly as before.
+ */
+public class CraftingPlanCache {
+
+    private final Map<PlanKey, Plan> plans;
+    private int patternVersion = 0;
+
+    public CraftingPlanCache(final int maxSize) {
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 5069435216294810425L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<PlanKey, Plan> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Drops all plans, called whenever the pattern set of the grid changed.
+     */
+    public synchronized void invalidate() {
+        this.patternVersion++;
+        this.plans.clear();
+    }
+
+    synchronized int getPatternVersion() {
+        return this.patternVersion;
+    }
+
+    /**
+     * @param storage the current content of the grid's item storage
+     * @return an already completed job reusing a cached plan, or null if there is no valid plan
+     */
+    @Nullable
+    public CraftingJob findJob(final World world, final IActionSource actionSrc, final IAEItemStack what,
+            final ICraftingCallback callback, final IItemList<IAEItemStack> storage) {
+        final Plan plan;
+        synchronized (this) {
+            plan = this.plans.get(new PlanKey(what, what.getStackSize()));
+        }
+
+        if (plan == null || !plan.isValid(storage)) {
+            return null;
+        }
+
+        return new CraftingJob(world, actionSrc, what, callback, plan.tree, plan.bytes);
+    }
+
+    synchronized void store(final IAEItemStack what, final int patternVersion, final CraftingTreeNode tree,
+            final long bytes, final MECraftingInventory snapshot) {
+        if (patternVersion != this.patternVersion) {
+            return;
+        }
+
+        final Object2LongOpenHashMap<IAEItemStack> demand = new Object2LongOpenHashMap<>();
+        if (!tree.collectDemand(demand)) {
+            return;
+        }
+
+        final Object2LongOpenHashMap<IAEItemStack> stocked = new Object2LongOpenHashMap<>(demand.size());
+        for (final IAEItemStack key : demand.keySet()) {
+            final IAEItemStack stored = snapshot.getItemList().findPrecise(key);
+            stocked.put(key, stored == null ? 0 : stored.getStackSize());
+        }
+
+        // the job is done with its tree, don't let the cache keep the job, its snapshot or the world alive.
+        tree.detach();
+        this.plans.put(new PlanKey(what.copy(), what.getStackSize()), new Plan(tree, bytes, demand, stocked));
+    }
+
+    private record PlanKey(IAEItemStack what, long amount) {
+    }
+
+    private record Plan(CraftingTreeNode tree, long bytes, Object2LongMap<IAEItemStack> demand,
+            Object2LongMap<IAEItemStack> stocked) {
+
+        private boolean isValid(final IItemList<IAEItemStack> storage) {
+            for (final Object2LongMap.Entry<IAEItemStack> entry : this.demand.object2LongEntrySet()) {
+                final IAEItemStack current = storage.findPrecise(entry.getKey());
+                final long now = current == null ? 0 : current.getStackSize();
+                final long before = this.stocked.getLong(entry.getKey());
+                final long demanded = entry.getLongValue();
+
+                if (before >= demanded ? now < demanded : now != before) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
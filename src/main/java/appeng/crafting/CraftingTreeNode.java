@@ -23,12 +23,16 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.world.World;
 
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import appeng.api.AEApi;
 import appeng.api.config.Actionable;
@@ -50,23 +54,25 @@ public class CraftingTreeNode {
 
     // what slot!
     private final int slot;
-    private final CraftingJob job;
+    private CraftingJob job;
     private final IItemList<IAEItemStack> used = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class)
             .createList();
     // parent node.
     private final CraftingTreeProcess parent;
-    private final World world;
+    private World world;
     // what item is this?
     private final IAEItemStack what;
     // what are the crafting patterns for this?
     private final ArrayList<CraftingTreeProcess> nodes = new ArrayList<>();
-    private final ICraftingGrid cc;
+    private ICraftingGrid cc;
     private final int depth;
     private int bytes = 0;
     private boolean canEmit = false;
     private long missing = 0;
     private long howManyEmitted = 0;
     private boolean exhausted = false;
+    // upper bound of how many of this item were ever asked from the inventory.
+    private long demand = 0;
 
     public CraftingTreeNode(final ICraftingGrid cc, final CraftingJob job, final IAEItemStack wat,
             final CraftingTreeProcess par, final int slot, final int depth) {
@@ -105,6 +111,7 @@ public class CraftingTreeNode {
         addNode();
         this.job.handlePausing();
 
+        this.demand += l;
         final IItemList<IAEItemStack> inventoryList = inv.getItemList();
         final List<IAEItemStack> thingsUsed = new ArrayList<>();
 
@@ -253,31 +260,34 @@ public class CraftingTreeNode {
             }
         } else if (this.nodes.size() > 1) {
             for (final CraftingTreeProcess pro : this.nodes) {
-                try {
-                    while (pro.possible && l > 0) {
-                        final MECraftingInventory subInv = new MECraftingInventory(inv, true, true, true);
-                        pro.request(subInv, 1, src);
-
-                        this.what.setStackSize(l);
-                        final IAEItemStack available = subInv.extractItems(this.what, Actionable.MODULATE, src);
+                boolean estimate = true;
+                while (pro.possible && l > 0) {
+                    long crafts = 1;
+                    if (estimate) {
+                        crafts = this.getBulkCrafts(pro, inv, l);
+                        estimate = crafts > 1;
+                    }
 
-                        if (available != null) {
-                            if (!subInv.commit(src)) {
-                                throw new CraftBranchFailure(this.what, l);
-                            }
+                    final IAEItemStack available;
+                    try {
+                        available = this.requestProcess(pro, inv, crafts, l, src);
+                    } catch (final CraftBranchFailure fail) {
+                        pro.possible = true;
+                        if (crafts > 1) {
+                            // the bulk request asked for too much at once, the pattern may still make a few.
+                            estimate = false;
+                            continue;
+                        }
+                        break;
+                    }
 
-                            this.bytes += available.getStackSize();
-                            l -= available.getStackSize();
+                    if (available != null) {
+                        l -= available.getStackSize();
 
-                            if (l <= 0) {
-                                return available;
-                            }
-                        } else {
-                            pro.possible = false; // ;P
+                        if (l <= 0) {
+                            return available;
                         }
                     }
-                } catch (final CraftBranchFailure fail) {
-                    pro.possible = true;
                 }
             }
         }
@@ -307,6 +317,87 @@ public class CraftingTreeNode {
         throw new CraftBranchFailure(this.what, l);
     }
 
+    private IAEItemStack requestProcess(final CraftingTreeProcess pro, final MECraftingInventory inv,
+            final long crafts, final long l, final IActionSource src)
+            throws CraftBranchFailure, InterruptedException {
+        final MECraftingInventory subInv = new MECraftingInventory(inv, true, true, true);
+        pro.request(subInv, crafts, src);
+
+        this.what.setStackSize(l);
+        final IAEItemStack available = subInv.extractItems(this.what, Actionable.MODULATE, src);
+
+        if (available == null) {
+            pro.possible = false; // ;P
+            return null;
+        }
+
+        if (!subInv.commit(src)) {
+            throw new CraftBranchFailure(this.what, l);
+        }
+
+        this.bytes += available.getStackSize();
+        return available;
+    }
+
+    /**
+     * Determines how many crafts of one of several patterns can be requested at once. A simulation takes everything
+     * from the first pattern anyway, otherwise the amount is limited to what the current inventory can satisfy.
+     */
+    private long getBulkCrafts(final CraftingTreeProcess pro, final MECraftingInventory inv, final long l) {
+        if (!pro.isLinear()) {
+            return 1;
+        }
+
+        final long wanted = pro.getTimes(l, pro.getAmountCrafted(this.what).getStackSize());
+        if (this.job.isSimulation()) {
+            return wanted;
+        }
+
+        final Set<Item> seen = new ReferenceOpenHashSet<>();
+        seen.add(this.what.getItem());
+        return Math.max(1, pro.estimateCrafts(inv, wanted, seen));
+    }
+
+    /**
+     * Calculates a lower bound of how many of this item can be extracted from the inventory or crafted through a single
+     * chain of patterns, without modifying anything.
+     *
+     * @return the supply, at most {@code need}, or -1 if the estimate had to be abandoned because an item was reached
+     *         twice
+     */
+    long estimateSupply(final MECraftingInventory inv, final long need, final Set<Item> seen) {
+        if (!seen.add(this.what.getItem())) {
+            return -1;
+        }
+
+        if (this.canEmit) {
+            return need;
+        }
+
+        this.demand += need;
+        final IAEItemStack stored = inv.extractItems(this.getStack(need), Actionable.SIMULATE, null);
+        final long stock = stored == null ? 0 : stored.getStackSize();
+        if (stock >= need) {
+            return need;
+        }
+
+        this.addNode();
+        if (this.nodes.size() != 1 || !this.nodes.get(0).possible) {
+            return stock;
+        }
+
+        final CraftingTreeProcess pro = this.nodes.get(0);
+        final long made = pro.getAmountCrafted(this.what).getStackSize();
+        final long missing = need - stock;
+        final long crafts = pro.estimateCrafts(inv, missing / made + (missing % made != 0 ? 1 : 0), seen);
+
+        if (crafts < 0 || crafts > Long.MAX_VALUE / made) {
+            return -1;
+        }
+
+        return stock + Math.min(missing, crafts * made);
+    }
+
     boolean notRecursive(ICraftingPatternDetails details) {
         if (this.parent == null) {
             return true;
@@ -408,10 +499,48 @@ public class CraftingTreeNode {
         }
     }
 
+    /**
+     * Drops the references to the calculating job, its world and grid once the tree is solved, so a cached plan does
+     * not keep them alive. Only the methods that replay the solved tree may be used afterwards.
+     */
+    void detach() {
+        this.job = null;
+        this.world = null;
+        this.cc = null;
+
+        for (final CraftingTreeProcess pro : this.nodes) {
+            pro.detach();
+        }
+    }
+
     int getSlot() {
         return this.slot;
     }
 
+    /**
+     * Collects the items this subtree looked up in the inventory, together with how many of them it could have asked
+     * for at most.
+     *
+     * @return false if the subtree depends on fuzzy or substituted lookups, which are not covered by the demand
+     */
+    boolean collectDemand(final Object2LongOpenHashMap<IAEItemStack> demand) {
+        if (this.what.getItem().isDamageable() || Platform.isGTDamageableItem(this.what.getItem())) {
+            return false;
+        }
+        if (this.parent != null && this.parent.details.canSubstitute()) {
+            return false;
+        }
+
+        demand.addTo(this.getStack(1), this.demand);
+
+        for (final CraftingTreeProcess pro : this.nodes) {
+            if (!pro.collectDemand(demand)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public long getTotalCraftsForPrimaryOutput(IAEItemStack targetMaterial) {
         long total = 0;
 
@@ -20,12 +20,16 @@ package appeng.crafting;
 
 import java.util.ArrayList;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import com.google.common.collect.ImmutableCollection;
 
+import net.minecraft.item.Item;
 import net.minecraft.world.World;
 
 import it.unimi.dsi.fastutil.objects.Object2LongArrayMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 
 import appeng.api.config.Actionable;
 import appeng.api.networking.crafting.ICraftingGrid;
@@ -39,15 +43,16 @@ import appeng.me.cluster.implementations.CraftingCPUCluster;
 public class CraftingTreeProcess {
     private final CraftingTreeNode parent;
     final ICraftingPatternDetails details;
-    private final CraftingJob job;
+    private CraftingJob job;
     final Object2LongArrayMap<CraftingTreeNode> nodes = new Object2LongArrayMap<>();
     private final int depth;
-    private final ICraftingGrid cc;
-    private final World world;
+    private ICraftingGrid cc;
+    private World world;
     boolean possible = true;
     private long crafts = 0;
     private long bytes = 0;
     private ArrayList<IAEItemStack> containers;
+    private Boolean independentNodes;
 
     public CraftingTreeProcess(final ICraftingGrid cc, final CraftingJob job, final ICraftingPatternDetails details,
             final CraftingTreeNode craftingTreeNode, final int depth) {
@@ -185,14 +190,73 @@ public class CraftingTreeProcess {
     }
 
     long getTimes(final long remaining, final long stackSize) {
+        if (this.returnsInputs()) {
+            return 1;
+        }
+        return (remaining / stackSize) + (remaining % stackSize != 0 ? 1 : 0);
+    }
+
+    private boolean returnsInputs() {
         for (final IAEItemStack part : details.getCondensedOutputs()) {
             for (final IAEItemStack o : details.getCondensedInputs()) {
                 if (part.equals(o) || o.getItem().hasContainerItem(part.getDefinition())) {
-                    return 1;
+                    return true;
                 }
             }
         }
-        return (remaining / stackSize) + (remaining % stackSize != 0 ? 1 : 0);
+        return false;
+    }
+
+    /**
+     * @return true if requesting this process n times has exactly the effect of requesting it once n times, i.e. it
+     *         involves neither substitutions nor container items nor inputs which are returned by the craft.
+     */
+    boolean isLinear() {
+        if (this.details.canSubstitute() || AEConfig.instance().getEnableCraftingSubstitutes()) {
+            return false;
+        }
+
+        for (final IAEItemStack in : this.details.getCondensedInputs()) {
+            if (in != null && in.getItem().hasContainerItem(in.getDefinition())) {
+                return false;
+            }
+        }
+
+        return !this.returnsInputs();
+    }
+
+    /**
+     * Calculates a lower bound of how many times this process can be crafted from the inventory, without modifying
+     * anything.
+     *
+     * @return the possible crafts, at most {@code crafts}, or -1 if the estimate had to be abandoned
+     */
+    long estimateCrafts(final MECraftingInventory inv, final long crafts, final Set<Item> seen) {
+        if (crafts <= 0 || !this.isLinear()) {
+            return 0;
+        }
+
+        this.addProcess();
+
+        long possibleCrafts = crafts;
+        for (final Object2LongMap.Entry<CraftingTreeNode> entry : this.nodes.object2LongEntrySet()) {
+            final long perCraft = entry.getLongValue();
+            if (perCraft <= 0) {
+                continue;
+            }
+            if (possibleCrafts > Long.MAX_VALUE / perCraft) {
+                return -1;
+            }
+
+            final long supply = entry.getKey().estimateSupply(inv, perCraft * possibleCrafts, seen);
+            if (supply < 0) {
+                return -1;
+            }
+
+            possibleCrafts = Math.min(possibleCrafts, supply / perCraft);
+        }
+
+        return possibleCrafts;
     }
 
     void request(final MECraftingInventory inv, final long amountOfTimes, final IActionSource src)
@@ -201,8 +265,12 @@ public class CraftingTreeProcess {
         this.job.handlePausing();
 
         // request and remove inputs...
-        for (final Entry<CraftingTreeNode, Long> entry : this.nodes.object2LongEntrySet()) {
-            final IAEItemStack stack = entry.getKey().request(inv, entry.getValue() * amountOfTimes, src);
+        if (this.job.isForking() && this.hasIndependentNodes()) {
+            this.job.requestInParallel(this.nodes, amountOfTimes, inv, src);
+        } else {
+            for (final Entry<CraftingTreeNode, Long> entry : this.nodes.object2LongEntrySet()) {
+                final IAEItemStack stack = entry.getKey().request(inv, entry.getValue() * amountOfTimes, src);
+            }
         }
 
         if (this.containers != null) {
@@ -222,7 +290,14 @@ public class CraftingTreeProcess {
         this.crafts += amountOfTimes;
     }
 
-    public void addContainers(IAEItemStack container) {
+    private boolean hasIndependentNodes() {
+        if (this.independentNodes == null) {
+            this.independentNodes = this.job.canRequestInParallel(this.nodes.keySet());
+        }
+        return this.independentNodes;
+    }
+
+    public synchronized void addContainers(IAEItemStack container) {
         if (this.containers == null) {
             this.containers = new ArrayList<>();
         }
@@ -290,6 +365,25 @@ public class CraftingTreeProcess {
         }
     }
 
+    void detach() {
+        this.job = null;
+        this.world = null;
+        this.cc = null;
+
+        for (final CraftingTreeNode node : this.nodes.keySet()) {
+            node.detach();
+        }
+    }
+
+    boolean collectDemand(final Object2LongOpenHashMap<IAEItemStack> demand) {
+        for (final CraftingTreeNode node : this.nodes.keySet()) {
+            if (!node.collectDemand(demand)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean isPrimaryOutput(IAEItemStack target) {
         IAEItemStack[] outputs = this.details.getCondensedOutputs();
         return outputs != null && outputs.length > 0 && outputs[0].isSameType(target);
@@ -34,6 +34,7 @@ import appeng.api.storage.data.IItemList;
 import appeng.core.sync.network.NetworkHandler;
 import appeng.core.sync.packets.PacketInformPlayer;
 import appeng.util.inv.ItemListIgnoreCrafting;
+import appeng.util.inv.ItemListOverlay;
 
 public class MECraftingInventory implements IMEInventory<IAEItemStack> {
 
@@ -88,12 +89,46 @@ public class MECraftingInventory implements IMEInventory<IAEItemStack> {
             this.injectedCache = null;
         }
 
-        this.localCache = this.target.getAvailableItems(new ItemListIgnoreCrafting<>(
+        this.localCache = new ItemListOverlay<>(parent.localCache, new ItemListIgnoreCrafting<>(
                 AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList()));
 
         this.par = parent;
     }
 
+    /**
+     * Creates a copy-on-write view of another crafting inventory. Only the stacks touched through this inventory are
+     * copied, the parent must not be modified until this inventory was either committed or discarded.
+     */
+    public MECraftingInventory(final MECraftingInventory parent, final boolean logExtracted,
+            final boolean logInjections, final boolean logMissing) {
+        this.target = parent;
+        this.logExtracted = logExtracted;
+        this.logInjections = logInjections;
+        this.logMissing = logMissing;
+
+        if (logMissing) {
+            this.missingCache = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+        } else {
+            this.missingCache = null;
+        }
+
+        if (logExtracted) {
+            this.extractedCache = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+        } else {
+            this.extractedCache = null;
+        }
+
+        if (logInjections) {
+            this.injectedCache = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+        } else {
+            this.injectedCache = null;
+        }
+
+        this.localCache = new ItemListOverlay<>(parent.localCache, new ItemListIgnoreCrafting<>(
+                AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList()));
+        this.par = null;
+    }
+
     public MECraftingInventory(final IMEMonitor<IAEItemStack> target, final IActionSource src,
             final boolean logExtracted, final boolean logInjections, final boolean logMissing) {
         this.target = target;
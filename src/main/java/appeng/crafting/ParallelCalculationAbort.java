@@ -16,34 +16,17 @@
  * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
  */
 
-package appeng.me;
+package appeng.crafting;
 
-import appeng.api.networking.IGridNode;
-import appeng.api.networking.IGridVisitor;
-
-class GridSplitDetector implements IGridVisitor {
-
-    private final IGridNode pivot;
-    private boolean pivotFound;
-
-    public GridSplitDetector(final IGridNode pivot) {
-        this.pivot = pivot;
-    }
-
-    @Override
-    public boolean visitNode(final IGridNode n) {
-        if (n == this.pivot) {
-            this.setPivotFound(true);
-        }
-
-        return !this.isPivotFound();
-    }
+/**
+ * Thrown when a branch of a parallel crafting calculation failed unexpectedly, or the changes of two branches
+ * conflicted. The whole tree has to be calculated again serially to get the same result as a serial calculation.
+ */
+class ParallelCalculationAbort extends RuntimeException {
 
-    public boolean isPivotFound() {
-        return this.pivotFound;
-    }
+    private static final long serialVersionUID = -1836249035471927453L;
 
-    private void setPivotFound(final boolean pivotFound) {
-        this.pivotFound = pivotFound;
+    ParallelCalculationAbort(final Throwable cause) {
+        super(cause.getMessage(), cause, false, false);
     }
 }
@@ -46,6 +46,7 @@ import appeng.hooks.TickHandler;
 import appeng.items.AEBaseItem;
 import appeng.me.Grid;
 import appeng.me.GridNode;
+import appeng.me.cache.PathGridCache;
 import appeng.me.cache.TickManagerCache;
 import appeng.parts.p2p.PartP2PTunnel;
 import appeng.tile.networking.TileController;
@@ -114,6 +115,12 @@ public class ToolDebugCard extends AEBaseItem {
                         this.outputMsg(player, "Cable Distance: " + length);
                     }
 
+                    if (pg instanceof PathGridCache) {
+                        final PathGridCache pgc = (PathGridCache) pg;
+                        this.outputMsg(player, "Last Repath: " + pgc.getLastPathItemsVisited() + " path items in "
+                                + pgc.getLastPathingTicks() + " ticks");
+                    }
+
                     if (center.getMachine() instanceof PartP2PTunnel) {
                         this.outputMsg(player, "Freq: " + ((PartP2PTunnel) center.getMachine()).getFrequency());
                     }
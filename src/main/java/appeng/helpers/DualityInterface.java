@@ -79,6 +79,7 @@ import appeng.api.storage.channels.IFluidStorageChannel;
 import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.util.AECableType;
 import appeng.api.util.AEPartLocation;
@@ -752,19 +753,21 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
                             IMEMonitor<IAEItemStack> inv = sm.getInventory(
                                     AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class));
                             if (inv != null) {
-                                final Iterator<ItemStack> i = this.waitingToSendFacing.get(s).iterator();
-                                while (i.hasNext()) {
-                                    ItemStack whatToSend = i.next();
-                                    final IAEItemStack result = inv.injectItems(AEItemStack.fromItemStack(whatToSend),
-                                            Actionable.MODULATE, this.mySource);
-                                    if (result != null) {
-                                        whatToSend.setCount((int) result.getStackSize());
-                                        whatToSend.setTagCompound(result.getDefinition().getTagCompound());
-                                    } else {
-                                        i.remove();
+                                final List<ItemStack> waiting = this.waitingToSendFacing.get(s);
+                                final IItemList<IAEItemStack> toSend = inv.getChannel().createList();
+                                for (final ItemStack whatToSend : waiting) {
+                                    toSend.add(AEItemStack.fromItemStack(whatToSend));
+                                }
+
+                                final IItemList<IAEItemStack> notSent = inv.injectItems(toSend, Actionable.MODULATE,
+                                        this.mySource);
+                                waiting.clear();
+                                for (final IAEItemStack result : notSent) {
+                                    if (result.getStackSize() > 0) {
+                                        waiting.add(result.createItemStack());
                                     }
                                 }
-                                if (this.waitingToSendFacing.get(s).isEmpty()) {
+                                if (waiting.isEmpty()) {
                                     this.waitingToSendFacing.remove(s);
                                 }
                             }
@@ -1032,6 +1035,33 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
     @Override
     public boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table) {
+        return this.pushPattern(patternDetails, table, 1);
+    }
+
+    /**
+     * Processing patterns can be pushed in bulk, as long as neither blocking mode nor a crafting lock asks for the
+     * copies to be sent one by one.
+     */
+    public int getMaxPatternCopies(final ICraftingPatternDetails patternDetails) {
+        if (patternDetails.isCraftable() || this.isBlocking()
+                || this.cm.getSetting(Settings.UNLOCK) != LockCraftingMode.NONE) {
+            return 1;
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    public boolean pushPatterns(final ICraftingPatternDetails patternDetails, final InventoryCrafting table,
+            final int copies) {
+        if (copies > this.getMaxPatternCopies(patternDetails)) {
+            return false;
+        }
+
+        return this.pushPattern(patternDetails, table, copies);
+    }
+
+    private boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table,
+            final int copies) {
         if (this.hasItemsToSend() || this.hasItemsToSendFacing() || !this.gridProxy.isActive()
                 || !this.craftingList.contains(patternDetails)) {
             return false;
@@ -1083,21 +1113,13 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
                             IMEMonitor<IAEItemStack> inv = sm.getInventory(
                                     AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class));
 
-                            var allItemsCanBeInserted = true;
+                            final IItemList<IAEItemStack> inputs = inv.getChannel().createList();
                             for (int x = 0; x < table.getSizeInventory(); x++) {
-                                final ItemStack is = table.getStackInSlot(x);
-                                if (is.isEmpty()) {
-                                    continue;
-                                }
-                                IAEItemStack result = inv.injectItems(AEItemStack.fromItemStack(is),
-                                        Actionable.SIMULATE, this.mySource);
-                                if (result != null) {
-                                    allItemsCanBeInserted = false;
-                                    break;
-                                }
+                                inputs.add(AEItemStack.fromItemStack(table.getStackInSlot(x)));
                             }
 
-                            if (!allItemsCanBeInserted) {
+                            // like checking every stack on its own, different stacks may still compete for space.
+                            if (!inv.injectItems(inputs, Actionable.SIMULATE, this.mySource).isEmpty()) {
                                 continue;
                             }
 
@@ -1121,7 +1143,8 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
             }
 
             if (te instanceof ICraftingMachine cm) {
-                if (cm.acceptsPlans()) {
+                // crafting machines take a single craft at a time
+                if (cm.acceptsPlans() && copies == 1) {
                     visitedFaces.remove(s);
                     if (cm.pushPattern(patternDetails, table, s.getOpposite())) {
                         onPushPatternSuccess(patternDetails);
@@ -21,6 +21,10 @@ package appeng.helpers;
 import static appeng.helpers.ItemStackHelper.stackFromNBT;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.Item;
@@ -52,6 +56,18 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     public static final int CRAFTING_OUTPUT_LIMIT = 1;
     public static final int PROCESSING_OUTPUT_LIMIT = 6;
 
+    /**
+     * Upper bound of decoded patterns kept around, enough for the pattern sets of very large networks.
+     */
+    private static final int DECODED_CACHE_SIZE = 8192;
+
+    /**
+     * Decoded patterns by their encoded item, shared by every interface holding an identical pattern.
+     */
+    private static final Cache<IAEItemStack, PatternHelper> DECODED = CacheBuilder.newBuilder()
+            .maximumSize(DECODED_CACHE_SIZE)
+            .build();
+
     private final ItemStack patternItem;
     private final InventoryCrafting crafting;
     private final InventoryCrafting testFrame;
@@ -64,12 +80,16 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     private final Map<Integer, List<IAEItemStack>> substituteInputs;
     private final boolean isCrafting;
     private final boolean canSubstitute;
-    private final Set<TestLookup> failCache = new HashSet<>();
-    private final Set<TestLookup> passCache = new HashSet<>();
+    private final Set<TestLookup> failCache;
+    private final Set<TestLookup> passCache;
     private final IAEItemStack pattern;
     private int priority = 0;
 
     public PatternHelper(final ItemStack is, final World w) {
+        this(is, AEItemStack.fromItemStack(is), w);
+    }
+
+    private PatternHelper(final ItemStack is, final IAEItemStack pattern, final World w) {
         final NBTTagCompound encodedValue = is.getTagCompound();
 
         if (encodedValue == null) {
@@ -85,7 +105,9 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 
         this.canSubstitute = this.isCrafting && encodedValue.getBoolean("substitute");
         this.patternItem = is;
-        this.pattern = AEItemStack.fromItemStack(is);
+        this.pattern = pattern;
+        this.failCache = new HashSet<>();
+        this.passCache = new HashSet<>();
 
         final List<IAEItemStack> in = new ArrayList<>();
         final List<IAEItemStack> out = new ArrayList<>();
@@ -139,7 +161,7 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 
         this.inputs = in.toArray(new IAEItemStack[isCrafting ? CRAFTING_INPUT_LIMIT : PROCESSING_INPUT_LIMIT]);
         this.outputs = out.toArray(new IAEItemStack[outputLength]);
-        this.substituteInputs = new HashMap<>(CRAFTING_INPUT_LIMIT);
+        this.substituteInputs = new ConcurrentHashMap<>(CRAFTING_INPUT_LIMIT);
 
         final Map<IAEItemStack, IAEItemStack> tmpOutputs = new HashMap<>();
 
@@ -194,6 +216,54 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
         }
     }
 
+    /**
+     * Creates the details for another stack of an already decoded pattern. Everything but the stack itself and the
+     * priority is shared with the decoded instance, including the pass/fail and substitution caches.
+     */
+    private PatternHelper(final ItemStack is, final PatternHelper decoded) {
+        this.patternItem = is;
+        this.pattern = decoded.pattern;
+        this.crafting = decoded.crafting;
+        this.testFrame = decoded.testFrame;
+        this.correctOutput = decoded.correctOutput;
+        this.standardRecipe = decoded.standardRecipe;
+        this.condensedInputs = decoded.condensedInputs;
+        this.condensedOutputs = decoded.condensedOutputs;
+        this.inputs = decoded.inputs;
+        this.outputs = decoded.outputs;
+        this.substituteInputs = decoded.substituteInputs;
+        this.isCrafting = decoded.isCrafting;
+        this.canSubstitute = decoded.canSubstitute;
+        this.failCache = decoded.failCache;
+        this.passCache = decoded.passCache;
+    }
+
+    /**
+     * Decodes the pattern stored on the given stack, reusing a previous decoding of an identical pattern if there is
+     * one.
+     * <p/>
+     * The returned details always report the given stack as their pattern, so callers can keep comparing them by
+     * identity against their inventory.
+     *
+     * @throws IllegalArgumentException if the stack holds no valid pattern
+     * @throws IllegalStateException    if the stack holds no valid pattern
+     */
+    public static PatternHelper fromItemStack(final ItemStack is, final World w) {
+        if (is.isEmpty() || is.getTagCompound() == null) {
+            throw new IllegalArgumentException("No pattern here!");
+        }
+
+        final IAEItemStack key = AEItemStack.fromItemStack(is);
+        PatternHelper decoded = DECODED.getIfPresent(key);
+
+        if (decoded == null) {
+            decoded = new PatternHelper(is.copy(), key, w);
+            DECODED.put(key, decoded);
+        }
+
+        return new PatternHelper(is, decoded);
+    }
+
     private void markItemAs(final int slotIndex, final ItemStack i, final TestStatus b) {
         if (b == TestStatus.TEST || i.hasTagCompound()) {
             return;
@@ -208,11 +278,18 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
     }
 
     @Override
-    public synchronized boolean isValidItemForSlot(final int slotIndex, final ItemStack i, final World w) {
+    public boolean isValidItemForSlot(final int slotIndex, final ItemStack i, final World w) {
         if (!this.isCrafting) {
             throw new IllegalStateException("Only crafting recipes supported.");
         }
 
+        // the test frame and the caches are shared by all stacks of this pattern
+        synchronized (this.testFrame) {
+            return this.testItemForSlot(slotIndex, i, w);
+        }
+    }
+
+    private boolean testItemForSlot(final int slotIndex, final ItemStack i, final World w) {
         final TestStatus result = this.getStatus(slotIndex, i);
 
         switch (result) {
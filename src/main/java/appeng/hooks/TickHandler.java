@@ -176,9 +176,11 @@ public class TickHandler {
                 final Collection<CraftingJob> jobSet = this.craftingJobs.get(ev.world);
 
                 if (!jobSet.isEmpty()) {
+                    // the budget is shared by all worlds calculating something, and within a world by its jobs.
                     final int jobSize = jobSet.size();
+                    final int worlds = Math.max(1, this.craftingJobs.keySet().size());
                     final int microSecondsPerTick = AEConfig.instance().getCraftingCalculationTimePerTick() * 1000;
-                    final int simTime = Math.max(1, microSecondsPerTick / jobSize);
+                    final int simTime = Math.max(1, microSecondsPerTick / worlds / jobSize);
 
                     final Iterator<CraftingJob> i = jobSet.iterator();
 
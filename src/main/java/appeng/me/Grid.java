@@ -229,6 +229,13 @@ public class Grid implements IGrid {
         return this.machines.get(machineClass);
     }
 
+    /**
+     * @return the machines of the given class, or null if there are none
+     */
+    MachineSet getMachineSet(final Class<?> machineClass) {
+        return this.machines.get(machineClass);
+    }
+
     @Override
     public boolean isEmpty() {
         return this.pivot == null;
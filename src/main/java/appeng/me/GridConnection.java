@@ -36,6 +36,7 @@ import appeng.api.util.IReadOnlyCollection;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.Platform;
 import appeng.util.ReadOnlyCollection;
@@ -96,14 +97,13 @@ public class GridConnection implements IGridConnection, IPathItem {
     @Override
     public void destroy() {
         // a connection was destroyed RE-PATH!!
-        final IPathingGrid p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        final PathGridCache p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
+        p.onConnectionDestroyed(this);
 
         this.sideA.removeConnection(this);
         this.sideB.removeConnection(this);
 
-        this.sideA.validateGrid();
-        this.sideB.validateGrid();
+        GridNode.validateGrid(this.sideA, this.sideB);
     }
 
     @Override
@@ -176,6 +176,17 @@ public class GridConnection implements IGridConnection, IPathItem {
         return this.usedChannels;
     }
 
+    public void incrementChannelCount(final int usedChannels) {
+        this.usedChannels += usedChannels;
+    }
+
+    /**
+     * @return the channels assigned to this connection by pathing, which may not have been finalized yet
+     */
+    public int getPathingChannels() {
+        return this.usedChannels;
+    }
+
     @Override
     public void finalizeChannels() {
         if (this.lastUsedChannels != this.usedChannels) {
@@ -254,9 +265,9 @@ public class GridConnection implements IGridConnection, IPathItem {
             }
         }
 
-        // a connection was destroyed RE-PATH!!
-        final IPathingGrid p = connection.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        // a connection was created RE-PATH!!
+        final PathGridCache p = connection.sideA.getInternalGrid().getCache(IPathingGrid.class);
+        p.onConnectionCreated(connection);
 
         connection.sideA.addConnection(connection);
         connection.sideB.addConnection(connection);
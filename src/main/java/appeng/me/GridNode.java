@@ -139,12 +139,32 @@ public class GridNode implements IGridNode, IPathItem {
         return false;
     }
 
-    void validateGrid() {
-        final GridSplitDetector gsd = new GridSplitDetector(this.getInternalGrid().getPivot());
-        this.beginVisit(gsd);
-        if (!gsd.isPivotFound()) {
-            final IGridVisitor gp = new GridPropagator(Grid.create(this));
-            this.beginVisit(gp);
+    /**
+     * Checks if removing the connection between two nodes split their grid. Both sides are searched in turns until the
+     * searches meet, or one of them runs out of nodes and that side is moved to a new grid. This way only the smaller
+     * side of a split is ever visited in full.
+     */
+    static void validateGrid(final GridNode a, final GridNode b) {
+        final GridNode pivot = (GridNode) a.getInternalGrid().getPivot();
+        final SplitSearch searchA = new SplitSearch(a, pivot);
+        final SplitSearch searchB = new SplitSearch(b, pivot);
+
+        while (true) {
+            if (searchA.isExhausted()) {
+                searchA.split(b);
+                return;
+            }
+            if (searchA.step(searchB)) {
+                return;
+            }
+
+            if (searchB.isExhausted()) {
+                searchB.split(a);
+                return;
+            }
+            if (searchB.step(searchA)) {
+                return;
+            }
         }
     }
 
@@ -634,6 +654,13 @@ public class GridNode implements IGridNode, IPathItem {
         this.usedChannels += usedChannels;
     }
 
+    /**
+     * @return the channels assigned to this node by pathing, which may not have been finalized yet
+     */
+    public int getPathingChannels() {
+        return this.usedChannels;
+    }
+
     @Override
     public void finalizeChannels() {
         this.highestSimilarAncestor = null;
@@ -667,6 +694,63 @@ public class GridNode implements IGridNode, IPathItem {
         this.previousDraw = previousDraw;
     }
 
+    /**
+     * One side of the search in {@link #validateGrid(GridNode, GridNode)}. Visited nodes are marked with the tracker of
+     * their side, so meeting the other side is a single comparison.
+     */
+    private static final class SplitSearch {
+        private final Object tracker = new Object();
+        private final Deque<GridNode> open = new ArrayDeque<>();
+        private final GridNode start;
+        private final GridNode pivot;
+        private boolean pivotFound;
+
+        SplitSearch(final GridNode start, final GridNode pivot) {
+            this.start = start;
+            this.pivot = pivot;
+            this.pivotFound = start == pivot;
+            start.visitorIterationNumber = this.tracker;
+            this.open.add(start);
+        }
+
+        boolean isExhausted() {
+            return this.open.isEmpty();
+        }
+
+        /**
+         * Visits the next node of this side.
+         *
+         * @return true if the other side was reached
+         */
+        boolean step(final SplitSearch other) {
+            final GridNode n = this.open.poll();
+            for (final IGridConnection gc : n.connections) {
+                final GridNode gn = (GridNode) gc.getOtherSide(n);
+                if (gn.visitorIterationNumber == other.tracker) {
+                    return true;
+                }
+                if (gn.visitorIterationNumber != this.tracker) {
+                    gn.visitorIterationNumber = this.tracker;
+                    this.pivotFound |= gn == this.pivot;
+                    this.open.add(gn);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Moves this side into a new grid, leaving the grid to the other side.
+         */
+        void split(final GridNode otherSide) {
+            if (this.pivotFound) {
+                otherSide.getInternalGrid().setPivot(otherSide);
+            }
+
+            final IGridVisitor gp = new GridPropagator(Grid.create(this.start));
+            this.start.beginVisit(gp);
+        }
+    }
+
     private static class MachineSecurityBreak implements IWorldCallable<Void> {
         private final GridNode node;
 
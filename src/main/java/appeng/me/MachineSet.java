@@ -29,11 +29,59 @@ public class MachineSet extends HashSet<IGridNode> implements IMachineSet {
     private static final long serialVersionUID = 3224660708327386933L;
 
     private final Class<? extends IGridHost> machine;
+    /**
+     * Incremented on every membership change, so event dispatch can tell if the snapshot it iterates is still current.
+     */
+    private transient int version;
+    private transient IGridNode[] snapshot;
 
     MachineSet(final Class<? extends IGridHost> m) {
         this.machine = m;
     }
 
+    @Override
+    public boolean add(final IGridNode node) {
+        if (super.add(node)) {
+            this.changed();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(final Object node) {
+        if (super.remove(node)) {
+            this.changed();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.changed();
+    }
+
+    private void changed() {
+        this.version++;
+        this.snapshot = null;
+    }
+
+    int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return the current members, which is only copied again after the membership changed. Must not be modified.
+     */
+    IGridNode[] getSnapshot() {
+        if (this.snapshot == null) {
+            this.snapshot = this.toArray(new IGridNode[0]);
+        }
+        return this.snapshot;
+    }
+
     @Override
     public Class<? extends IGridHost> getMachineClass() {
         return this.machine;
@@ -18,7 +18,14 @@
 
 package appeng.me;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -28,7 +35,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import appeng.api.networking.IGridNode;
-import appeng.api.networking.IMachineSet;
 import appeng.api.networking.events.MENetworkEvent;
 import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.core.AELog;
@@ -36,12 +42,29 @@ import appeng.core.AELog;
 public class NetworkEventBus {
     private static final Collection<Class> READ_CLASSES = new HashSet<>();
     private static final Map<Class<? extends MENetworkEvent>, Map<Class, MENetworkEventInfo>> EVENTS = new HashMap<>();
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class,
+            MENetworkEvent.class);
+
+    /**
+     * Incremented whenever new subscribers were read, which invalidates the dispatch caches of all grids.
+     */
+    private static int subscriberRevision = 0;
+
+    /**
+     * The subscribers of each event class, with the caches of this bus' grid already resolved.
+     */
+    private final Map<Class<? extends MENetworkEvent>, Subscriber[]> dispatchCache = new HashMap<>();
+    private int dispatchRevision = -1;
 
     void readClass(final Class listAs, final Class c) {
         if (READ_CLASSES.contains(c)) {
             return;
         }
         READ_CLASSES.add(c);
+        subscriberRevision++;
 
         try {
             for (final Method m : c.getMethods()) {
@@ -80,30 +103,27 @@ public class NetworkEventBus {
     }
 
     MENetworkEvent postEvent(final Grid g, final MENetworkEvent e) {
-        final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(e.getClass());
         int x = 0;
 
         try {
-            if (subscribers != null) {
-                for (final Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet()) {
-                    final MENetworkEventInfo target = subscriber.getValue();
-                    final GridCacheWrapper cache = g.getCaches().get(subscriber.getKey());
-                    if (cache != null) {
-                        x++;
-                        target.invoke(cache.getCache(), e);
-                    }
+            for (final Subscriber subscriber : this.getSubscribers(g, e.getClass())) {
+                if (subscriber.cache != null) {
+                    x++;
+                    subscriber.target.invoke(subscriber.cache, e);
+                }
 
-                    // events may create or remove grid nodes in rare cases
-                    final IMachineSet machines = g.getMachines(subscriber.getKey());
-                    final List<IGridNode> work = new ArrayList<>(machines.size());
-                    machines.forEach(work::add);
+                final MachineSet machines = g.getMachineSet(subscriber.listAs);
+                if (machines == null) {
+                    continue;
+                }
 
-                    for (final IGridNode obj : work) {
-                        // stil part of grid?
-                        if (machines.contains(obj)) {
-                            x++;
-                            target.invoke(obj.getMachine(), e);
-                        }
+                // events may create or remove grid nodes in rare cases, which never affects the snapshot
+                final int version = machines.getVersion();
+                for (final IGridNode obj : machines.getSnapshot()) {
+                    // stil part of grid?
+                    if (machines.getVersion() == version || machines.contains(obj)) {
+                        x++;
+                        subscriber.target.invoke(obj.getMachine(), e);
                     }
                 }
             }
@@ -135,26 +155,104 @@ public class NetworkEventBus {
         return e;
     }
 
+    private Subscriber[] getSubscribers(final Grid g, final Class<? extends MENetworkEvent> eventClass) {
+        if (this.dispatchRevision != subscriberRevision) {
+            this.dispatchCache.clear();
+            this.dispatchRevision = subscriberRevision;
+        }
+
+        Subscriber[] subscribers = this.dispatchCache.get(eventClass);
+        if (subscribers == null) {
+            final Map<Class, MENetworkEventInfo> infos = EVENTS.get(eventClass);
+            if (infos == null) {
+                subscribers = NO_SUBSCRIBERS;
+            } else {
+                final List<Subscriber> list = new ArrayList<>(infos.size());
+                for (final Entry<Class, MENetworkEventInfo> info : infos.entrySet()) {
+                    final GridCacheWrapper cache = g.getCaches().get(info.getKey());
+                    list.add(new Subscriber(info.getKey(), info.getValue(), cache != null ? cache.getCache() : null));
+                }
+                subscribers = list.toArray(NO_SUBSCRIBERS);
+            }
+            this.dispatchCache.put(eventClass, subscribers);
+        }
+
+        return subscribers;
+    }
+
+    /**
+     * Compiles a subscriber method into a direct call, so dispatch does not go through reflection.
+     */
+    private static EventHandler createHandler(final Method m) throws Throwable {
+        if (!Modifier.isStatic(m.getModifiers())) {
+            try {
+                final MethodHandle target = LOOKUP.unreflect(m);
+                final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "handle",
+                        MethodType.methodType(EventHandler.class), HANDLER_TYPE, target, target.type());
+                return (EventHandler) site.getTarget().invokeExact();
+            } catch (final IllegalAccessException | LambdaConversionException e) {
+                // Not directly linkable from here, e.g. a public method of a non-public class.
+            }
+        }
+
+        m.setAccessible(true);
+        MethodHandle target = LOOKUP.unreflect(m);
+        if (Modifier.isStatic(m.getModifiers())) {
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        }
+
+        final MethodHandle handle = target.asType(HANDLER_TYPE);
+        return (obj, event) -> {
+            try {
+                handle.invokeExact(obj, event);
+            } catch (final RuntimeException | Error t) {
+                throw t;
+            } catch (final Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface EventHandler {
+        void handle(Object obj, MENetworkEvent event);
+    }
+
     private static class NetworkEventDone extends Throwable {
 
         private static final long serialVersionUID = -3079021487019171205L;
     }
 
-    private class EventMethod {
+    private static class Subscriber {
+
+        private final Class listAs;
+        private final MENetworkEventInfo target;
+        private final Object cache;
+
+        private Subscriber(final Class listAs, final MENetworkEventInfo target, final Object cache) {
+            this.listAs = listAs;
+            this.target = target;
+            this.cache = cache;
+        }
+    }
+
+    private static class EventMethod {
 
         private final Class objClass;
         private final Method objMethod;
         private final Class objEvent;
+        private final EventHandler handler;
 
-        public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) {
+        public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) throws Throwable {
             this.objClass = ObjClass;
             this.objMethod = ObjMethod;
             this.objEvent = Event;
+            this.handler = createHandler(ObjMethod);
         }
 
         private void invoke(final Object obj, final MENetworkEvent e) throws NetworkEventDone {
             try {
-                this.objMethod.invoke(obj, e);
+                this.handler.handle(obj, e);
             } catch (final Throwable e1) {
                 AELog.error("[AppEng] Network Event caused exception:");
                 AELog.error("Class: %1s, Object: %2s", obj.getClass().getName(), obj.toString());
@@ -168,11 +266,11 @@ public class NetworkEventBus {
         }
     }
 
-    private class MENetworkEventInfo {
+    private static class MENetworkEventInfo {
 
         private final List<EventMethod> methods = new ArrayList<>();
 
-        private void Add(final Class Event, final Class ObjClass, final Method ObjMethod) {
+        private void Add(final Class Event, final Class ObjClass, final Method ObjMethod) throws Throwable {
             this.methods.add(new EventMethod(Event, ObjClass, ObjMethod));
         }
 
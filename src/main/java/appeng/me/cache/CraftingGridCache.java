@@ -19,17 +19,16 @@
 package appeng.me.cache;
 
 import java.util.*;
-import java.util.Map.Entry;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
 import java.util.stream.StreamSupport;
 
 import com.google.common.collect.*;
 
 import net.minecraft.world.World;
 
+import it.unimi.dsi.fastutil.objects.Object2BooleanMap;
+import it.unimi.dsi.fastutil.objects.Object2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectRBTreeSet;
@@ -57,9 +56,12 @@ import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
+import appeng.crafting.CraftingCalculationExecutor;
 import appeng.crafting.CraftingJob;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.CraftingLinkNexus;
+import appeng.crafting.CraftingPlanCache;
 import appeng.crafting.CraftingWatcher;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.me.helpers.BaseActionSource;
@@ -70,36 +72,30 @@ import appeng.tile.crafting.TileCraftingTile;
 public class CraftingGridCache
         implements ICraftingGrid, ICraftingProviderHelper, ICellProvider, IMEInventoryHandler<IAEItemStack> {
 
-    private static final ExecutorService CRAFTING_POOL;
     private static final Comparator<ICraftingPatternDetails> COMPARATOR = (firstDetail,
             nextDetail) -> nextDetail.getPriority() - firstDetail.getPriority();
 
-    static {
-        final ThreadFactory factory = ar -> {
-            final Thread crafting = new Thread(ar, "AE Crafting Calculator");
-            crafting.setDaemon(true);
-            return crafting;
-        };
-
-        CRAFTING_POOL = Executors.newCachedThreadPool(factory);
-    }
-
     private final Set<CraftingCPUCluster> craftingCPUClusters = new HashSet<>();
     private final Set<ICraftingProvider> craftingProviders = new HashSet<>();
     private final Map<IGridNode, ICraftingWatcher> craftingWatchers = new HashMap<>();
     private final IGrid grid;
     private final Object2ObjectMap<ICraftingPatternDetails, List<ICraftingMedium>> craftingMethods = new Object2ObjectOpenHashMap<>();
     private final Object2ObjectMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> craftableItems = new Object2ObjectOpenHashMap<>();
-    private final Set<IAEItemStack> emitableItems = new HashSet<>();
+    private final Object2ObjectMap<IAEItemStack, List<ICraftingPatternDetails>> patternsByOutput = new Object2ObjectOpenHashMap<>();
+    private final Object2IntOpenHashMap<IAEItemStack> emitableItems = new Object2IntOpenHashMap<>();
+    private final Map<ICraftingProvider, ProviderPatterns> providerPatterns = new HashMap<>();
+    private final Set<ICraftingProvider> dirtyProviders = new HashSet<>();
     private final Map<String, CraftingLinkNexus> craftingLinks = new HashMap<>();
     private final Multimap<IAEStack, CraftingWatcher> interests = HashMultimap.create();
     private final GenericInterestManager<CraftingWatcher> interestManager = new GenericInterestManager<>(
             this.interests);
+    private final CraftingPlanCache planCache = new CraftingPlanCache(
+            AEConfig.instance().getCraftingPlanCacheSize());
     private IStorageGrid storageGrid;
     private IEnergyGrid energyGrid;
     int i;
     private boolean updateList = false;
-    private boolean updatePatterns = false;
+    private ProviderPatterns collecting;
 
     public CraftingGridCache(final IGrid grid) {
         this.grid = grid;
@@ -120,9 +116,8 @@ public class CraftingGridCache
             this.updateCPUClusters();
         }
 
-        if (updatePatterns) {
-            this.recalculateCraftingPatterns();
-            this.updatePatterns = false;
+        if (!this.dirtyProviders.isEmpty()) {
+            this.updateCraftingPatterns();
         }
 
         final Iterator<CraftingLinkNexus> craftingLinkIterator = this.craftingLinks.values().iterator();
@@ -161,7 +156,7 @@ public class CraftingGridCache
 
         if (machine instanceof ICraftingProvider) {
             this.craftingProviders.remove(machine);
-            this.updatePatterns = true;
+            this.updatePatterns((ICraftingProvider) machine);
         }
     }
 
@@ -188,7 +183,7 @@ public class CraftingGridCache
 
         if (machine instanceof ICraftingProvider) {
             this.craftingProviders.add((ICraftingProvider) machine);
-            this.updatePatterns = true;
+            this.updatePatterns((ICraftingProvider) machine);
         }
     }
 
@@ -206,29 +201,80 @@ public class CraftingGridCache
         // nothing!
     }
 
-    private void updatePatterns() {
-        this.updatePatterns = true;
+    private void updatePatterns(final ICraftingProvider provider) {
+        this.dirtyProviders.add(provider);
     }
 
-    private void recalculateCraftingPatterns() {
-        final Object2ObjectMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> oldItems = new Object2ObjectOpenHashMap<>(
-                this.craftableItems);
-        final Set<IAEItemStack> oldEmitableItems = new HashSet<>(this.emitableItems);
+    /**
+     * Re-polls only the providers whose patterns changed since the last tick, and patches their previous
+     * contribution out of and their new one into the index. Only the items whose craftability actually changed are
+     * posted to the storage grid.
+     */
+    private void updateCraftingPatterns() {
+        final List<ICraftingProvider> providers = new ArrayList<>(this.dirtyProviders);
+        this.dirtyProviders.clear();
+
+        this.planCache.invalidate();
+
+        final Object2BooleanMap<IAEItemStack> touched = new Object2BooleanOpenHashMap<>();
+
+        for (final ICraftingProvider provider : providers) {
+            final ProviderPatterns previous = this.providerPatterns.remove(provider);
+
+            if (previous != null) {
+                this.removeProviderPatterns(previous, touched);
+            }
+
+            if (this.craftingProviders.contains(provider)) {
+                final ProviderPatterns current = new ProviderPatterns();
+
+                this.collecting = current;
+                try {
+                    provider.provideCrafting(this);
+                } finally {
+                    this.collecting = null;
+                }
+
+                this.addProviderPatterns(current, touched);
+                this.providerPatterns.put(provider, current);
+            }
+        }
+
+        final List<IAEItemStack> craftablesChanged = new ArrayList<>();
+
+        for (final Object2BooleanMap.Entry<IAEItemStack> e : touched.object2BooleanEntrySet()) {
+            final IAEItemStack out = e.getKey();
+            final boolean wasCraftable = e.getBooleanValue();
 
-        // erase list.
-        this.craftingMethods.clear();
-        this.craftableItems.clear();
-        this.emitableItems.clear();
+            this.updateCraftableItem(out);
 
-        // re-create list..
-        for (final ICraftingProvider provider : this.craftingProviders) {
-            provider.provideCrafting(this);
+            final boolean isCraftable = this.craftableItems.containsKey(out) || this.emitableItems.containsKey(out);
+            if (wasCraftable != isCraftable) {
+                IAEItemStack changedStack = out.copy();
+                changedStack.reset();
+                changedStack.setCraftable(isCraftable);
+                craftablesChanged.add(changedStack);
+            }
+        }
+
+        if (!craftablesChanged.isEmpty()) {
+            this.storageGrid.postCraftablesChanges(
+                    AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class), craftablesChanged,
+                    new BaseActionSource());
         }
+    }
 
-        final Object2ObjectMap<IAEItemStack, ObjectSet<ICraftingPatternDetails>> tmpCraft = new Object2ObjectOpenHashMap<>();
+    private void addProviderPatterns(final ProviderPatterns patterns,
+            final Object2BooleanMap<IAEItemStack> touched) {
+        for (int x = 0; x < patterns.details.size(); x++) {
+            final ICraftingPatternDetails details = patterns.details.get(x);
+
+            List<ICraftingMedium> mediums = this.craftingMethods.get(details);
+            if (mediums == null) {
+                this.craftingMethods.put(details, mediums = new ArrayList<>());
+            }
+            mediums.add(patterns.mediums.get(x));
 
-        // new craftables!
-        for (final ICraftingPatternDetails details : this.craftingMethods.keySet()) {
             for (IAEItemStack out : details.getOutputs()) {
                 if (out == null) {
                     continue;
@@ -237,63 +283,95 @@ public class CraftingGridCache
                 out.reset();
                 out.setCraftable(true);
 
-                ObjectSet<ICraftingPatternDetails> methods = tmpCraft.get(out);
+                this.touch(out, touched);
 
+                List<ICraftingPatternDetails> methods = this.patternsByOutput.get(out);
                 if (methods == null) {
-                    tmpCraft.put(out, methods = new ObjectRBTreeSet<>(COMPARATOR));
+                    this.patternsByOutput.put(out, methods = new ArrayList<>());
                 }
-
                 methods.add(details);
             }
         }
 
-        // make them immutable
-        for (final Entry<IAEItemStack, ObjectSet<ICraftingPatternDetails>> e : tmpCraft.entrySet()) {
-            this.craftableItems.put(e.getKey(), ImmutableList.copyOf(e.getValue()));
+        for (final IAEItemStack st : patterns.emitables) {
+            this.touch(st, touched);
+            this.emitableItems.addTo(st, 1);
         }
+    }
 
-        List<IAEItemStack> craftablesChanged = new ArrayList<>();
+    private void removeProviderPatterns(final ProviderPatterns patterns,
+            final Object2BooleanMap<IAEItemStack> touched) {
+        for (int x = 0; x < patterns.details.size(); x++) {
+            final ICraftingPatternDetails details = patterns.details.get(x);
 
-        ObjectSet<Entry<IAEItemStack, ImmutableList<ICraftingPatternDetails>>> i = oldItems.entrySet();
-        for (Entry<IAEItemStack, ImmutableList<ICraftingPatternDetails>> ais : i) {
-            if (!this.craftableItems.containsKey(ais.getKey())) {
-                IAEItemStack changedStack = ais.getKey().copy();
-                changedStack.reset();
-                changedStack.setCraftable(false);
-                craftablesChanged.add(changedStack);
+            final List<ICraftingMedium> mediums = this.craftingMethods.get(details);
+            if (mediums != null) {
+                mediums.remove(patterns.mediums.get(x));
+                if (mediums.isEmpty()) {
+                    this.craftingMethods.remove(details);
+                }
             }
-        }
 
-        ObjectSet<Entry<IAEItemStack, ImmutableList<ICraftingPatternDetails>>> j = this.craftableItems.entrySet();
-        for (Entry<IAEItemStack, ImmutableList<ICraftingPatternDetails>> ais : j) {
-            if (!oldItems.containsKey(ais)) {
-                IAEItemStack changedStack = ais.getKey().copy();
-                changedStack.reset();
-                changedStack.setCraftable(true);
-                craftablesChanged.add(changedStack);
+            for (final IAEItemStack out : details.getOutputs()) {
+                if (out == null) {
+                    continue;
+                }
+
+                this.touch(out, touched);
+
+                final List<ICraftingPatternDetails> methods = this.patternsByOutput.get(out);
+                if (methods != null) {
+                    // remove this exact instance, equal patterns of other providers stay
+                    for (int y = 0; y < methods.size(); y++) {
+                        if (methods.get(y) == details) {
+                            methods.remove(y);
+                            break;
+                        }
+                    }
+                    if (methods.isEmpty()) {
+                        this.patternsByOutput.remove(out);
+                    }
+                }
             }
         }
 
-        for (final IAEItemStack st : oldEmitableItems) {
-            if (!emitableItems.contains(st)) {
-                IAEItemStack changedStack = st.copy();
-                changedStack.reset();
-                changedStack.setCraftable(false);
-                craftablesChanged.add(changedStack);
+        for (final IAEItemStack st : patterns.emitables) {
+            this.touch(st, touched);
+            if (this.emitableItems.addTo(st, -1) <= 1) {
+                this.emitableItems.removeInt(st);
             }
         }
+    }
 
-        for (final IAEItemStack st : this.emitableItems) {
-            if (!oldEmitableItems.contains(st)) {
-                IAEItemStack changedStack = st.copy();
-                changedStack.reset();
-                changedStack.setCraftable(true);
-                craftablesChanged.add(changedStack);
+    /**
+     * Remembers whether the item was craftable before the first change to it in this update.
+     */
+    private void touch(final IAEItemStack what, final Object2BooleanMap<IAEItemStack> touched) {
+        if (!touched.containsKey(what)) {
+            final IAEItemStack key = what.copy();
+            key.reset();
+            key.setCraftable(true);
+            touched.put(key, this.craftableItems.containsKey(what) || this.emitableItems.containsKey(what));
+        }
+    }
+
+    private void updateCraftableItem(final IAEItemStack out) {
+        final List<ICraftingPatternDetails> methods = this.patternsByOutput.get(out);
+
+        if (methods == null) {
+            this.craftableItems.remove(out);
+            return;
+        }
+
+        final ObjectSet<ICraftingPatternDetails> sorted = new ObjectRBTreeSet<>(COMPARATOR);
+        final Set<ICraftingPatternDetails> unique = new HashSet<>();
+        for (final ICraftingPatternDetails details : methods) {
+            if (unique.add(details)) {
+                sorted.add(details);
             }
         }
 
-        this.storageGrid.postCraftablesChanges(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class),
-                craftablesChanged, new BaseActionSource());
+        this.craftableItems.put(out, ImmutableList.copyOf(sorted));
     }
 
     private void updateCPUClusters() {
@@ -336,24 +414,31 @@ public class CraftingGridCache
 
     @MENetworkEventSubscribe
     public void updateCPUClusters(final MENetworkCraftingPatternChange c) {
-        this.updatePatterns();
+        // Providers are tracked by their machine, while e.g. interfaces post the event with their duality.
+        final ICraftingProvider provider = c.node != null && c.node.getMachine() instanceof ICraftingProvider
+                ? (ICraftingProvider) c.node.getMachine()
+                : c.provider;
+
+        if (provider != null) {
+            this.updatePatterns(provider);
+        } else {
+            this.dirtyProviders.addAll(this.craftingProviders);
+        }
     }
 
     @Override
     public void addCraftingOption(final ICraftingMedium medium, final ICraftingPatternDetails api) {
-        List<ICraftingMedium> details = this.craftingMethods.get(api);
-        if (details == null) {
-            details = new ArrayList<>();
-            details.add(medium);
-            this.craftingMethods.put(api, details);
-        } else {
-            details.add(medium);
+        if (this.collecting != null) {
+            this.collecting.mediums.add(medium);
+            this.collecting.details.add(api);
         }
     }
 
     @Override
     public void setEmitable(final IAEItemStack someItem) {
-        this.emitableItems.add(someItem.copy());
+        if (this.collecting != null) {
+            this.collecting.emitables.add(someItem.copy());
+        }
     }
 
     @Override
@@ -424,7 +509,7 @@ public class CraftingGridCache
             out.addCrafting(stack);
         }
 
-        for (final IAEItemStack st : this.emitableItems) {
+        for (final IAEItemStack st : this.emitableItems.keySet()) {
             out.addCrafting(st);
         }
 
@@ -455,9 +540,19 @@ public class CraftingGridCache
             throw new IllegalArgumentException("Invalid Crafting Job Request");
         }
 
-        final CraftingJob job = new CraftingJob(world, grid, actionSrc, slotItem, cb);
+        CraftingJob job = null;
+        if (AEConfig.instance().getCraftingPlanCacheSize() > 0) {
+            final IStorageGrid sg = grid.getCache(IStorageGrid.class);
+            job = this.planCache.findJob(world, actionSrc, slotItem, cb,
+                    sg.getInventory(AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class))
+                            .getStorageList());
+        }
+
+        if (job == null) {
+            job = new CraftingJob(world, grid, actionSrc, slotItem, cb, this.planCache);
+        }
 
-        return CRAFTING_POOL.submit(job, job);
+        return CraftingCalculationExecutor.instance().submit(job);
     }
 
     @Override
@@ -516,7 +611,7 @@ public class CraftingGridCache
 
     @Override
     public boolean canEmitFor(final IAEItemStack someItem) {
-        return this.emitableItems.contains(someItem);
+        return this.emitableItems.containsKey(someItem);
     }
 
     @Override
@@ -557,6 +652,16 @@ public class CraftingGridCache
         return this.interestManager;
     }
 
+    /**
+     * Everything a single provider added during its last {@link ICraftingProvider#provideCrafting}.
+     */
+    private static class ProviderPatterns {
+
+        private final List<ICraftingMedium> mediums = new ArrayList<>();
+        private final List<ICraftingPatternDetails> details = new ArrayList<>();
+        private final List<IAEItemStack> emitables = new ArrayList<>();
+    }
+
     private static class ActiveCpuIterator implements Iterator<ICraftingCPU> {
 
         private final Iterator<CraftingCPUCluster> iterator;
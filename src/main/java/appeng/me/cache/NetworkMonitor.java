@@ -43,9 +43,7 @@ import appeng.api.storage.data.IItemList;
 import appeng.me.storage.ItemWatcher;
 
 public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
-    @Nonnull
-    private static final HashMap<IActionSource, LinkedList<NetworkMonitor<?>>> src2MonitorsMap = new HashMap<>();
-    private static final Set<IActionSource> nestingSources = new HashSet<>();
+    private static final ThreadLocal<PostingFrame> POSTING = ThreadLocal.withInitial(PostingFrame::new);
 
     protected boolean wasNested = false;
     protected boolean isNested = false;
@@ -59,6 +57,13 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     @Nonnull
     private final Object2ObjectMap<IMEMonitorHandlerReceiver<T>, Object> listeners;
 
+    // changes held back for tick tolerant listeners, merged per stack and posted once per tick.
+    @Nonnull
+    private IItemList<T> pendingChanges;
+    @Nullable
+    private IActionSource pendingSource;
+    private boolean hasPendingChanges = false;
+
     private boolean sendEvent = false;
     private long gridItemCount;
     private long gridFluidCount;
@@ -68,6 +73,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         this.myGridCache = cache;
         this.myChannel = chan;
         this.cachedList = chan.createList();
+        this.pendingChanges = chan.createList();
         this.listeners = new Object2ObjectOpenHashMap<>();
     }
 
@@ -139,6 +145,16 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         return this.getHandler().injectItems(input, mode, src);
     }
 
+    @Override
+    public IItemList<T> injectItems(final IItemList<T> input, final Actionable mode, final IActionSource src) {
+        return this.getHandler().injectItems(input, mode, src);
+    }
+
+    @Override
+    public IItemList<T> extractItems(final IItemList<T> request, final Actionable mode, final IActionSource src) {
+        return this.getHandler().extractItems(request, mode, src);
+    }
+
     @Override
     public boolean isPrioritized(final T input) {
         return this.getHandler().isPrioritized(input);
@@ -165,13 +181,62 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     private void notifyListenersOfChange(final Iterable<T> diff, final IActionSource src) {
         final Iterator<Entry<IMEMonitorHandlerReceiver<T>, Object>> i = this.getListeners();
+        boolean deferred = false;
 
         while (i.hasNext()) {
             final Entry<IMEMonitorHandlerReceiver<T>, Object> o = i.next();
             final IMEMonitorHandlerReceiver<T> receiver = o.getKey();
 
             if (receiver.isValid(o.getValue())) {
-                receiver.postChange(this, diff, src);
+                if (receiver.isTickTolerant()) {
+                    deferred = true;
+                } else {
+                    receiver.postChange(this, diff, src);
+                }
+            } else {
+                i.remove();
+            }
+        }
+
+        if (deferred) {
+            this.deferChanges(diff, src);
+        }
+    }
+
+    private void deferChanges(final Iterable<T> diff, final IActionSource src) {
+        for (final T change : diff) {
+            this.pendingChanges.add(change);
+        }
+
+        if (!this.hasPendingChanges) {
+            this.hasPendingChanges = true;
+            this.pendingSource = src;
+        } else if (this.pendingSource != src) {
+            this.pendingSource = null;
+        }
+    }
+
+    private void postPendingChanges() {
+        final IItemList<T> merged = this.pendingChanges;
+        final IActionSource src = this.pendingSource;
+
+        this.pendingChanges = this.myChannel.createList();
+        this.pendingSource = null;
+        this.hasPendingChanges = false;
+
+        if (merged.isEmpty()) {
+            return;
+        }
+
+        final Iterator<Entry<IMEMonitorHandlerReceiver<T>, Object>> i = this.getListeners();
+        while (i.hasNext()) {
+            final Entry<IMEMonitorHandlerReceiver<T>, Object> o = i.next();
+            final IMEMonitorHandlerReceiver<T> receiver = o.getKey();
+
+            if (receiver.isValid(o.getValue())) {
+                if (receiver.isTickTolerant()) {
+                    receiver.postChange(this, merged, src);
+                }
             } else {
                 i.remove();
             }
@@ -191,12 +256,13 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     protected void postChange(final boolean add, final Iterable<T> changes, final IActionSource src) {
-        src2MonitorsMap.putIfAbsent(src, new LinkedList<>());
-        if (src2MonitorsMap.get(src).contains(this)) {
-            nestingSources.add(src);
+        final PostingFrame posting = POSTING.get();
+        final int first = posting.indexOf(src, 0);
+        if (first >= 0 && posting.contains(first, src, this)) {
+            posting.nested[first] = true;
             return;
         }
-        src2MonitorsMap.get(src).add(this);
+        posting.push(src, this);
 
         this.sendEvent = true;
 
@@ -234,18 +300,8 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
         this.notifyListenersOfChange(changes, src);
 
-        if (src2MonitorsMap.get(src).getFirst() == this) {
-            boolean nested = nestingSources.contains(src);
-            src2MonitorsMap.get(src).forEach(networkMonitor -> networkMonitor.isNested = nested);
-
-            src2MonitorsMap.get(src).forEach(networkMonitor -> {
-                if (networkMonitor.isNested != networkMonitor.wasNested) {
-                    networkMonitor.wasNested = networkMonitor.isNested;
-                    networkMonitor.setForceUpdate(true);
-                }
-            });
-            src2MonitorsMap.remove(src);
-            nestingSources.remove(src);
+        if (first < 0) {
+            posting.finish(src);
         }
     }
 
@@ -307,9 +363,88 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         if (forceUpdate) {
             forceUpdate();
         }
+        if (this.hasPendingChanges) {
+            this.postPendingChanges();
+        }
         if (this.sendEvent) {
             this.sendEvent = false;
             this.myGridCache.getGrid().postEvent(new MENetworkStorageEvent(this, this.myChannel));
         }
     }
+
+    /**
+     * The monitors posting changes on one thread, each with the source it posts for. The first monitor to post for a
+     * source settles whether any of them got a nested change for that source. Reused across calls so the nesting
+     * detection does not allocate.
+     */
+    private static final class PostingFrame {
+        private IActionSource[] sources = new IActionSource[16];
+        private NetworkMonitor<?>[] monitors = new NetworkMonitor<?>[16];
+        // only used at the first entry of each source
+        private boolean[] nested = new boolean[16];
+        private int size;
+
+        private int indexOf(final IActionSource src, final int from) {
+            for (int x = from; x < this.size; x++) {
+                if (Objects.equals(this.sources[x], src)) {
+                    return x;
+                }
+            }
+            return -1;
+        }
+
+        private boolean contains(final int first, final IActionSource src, final NetworkMonitor<?> monitor) {
+            for (int x = first; x < this.size; x++) {
+                if (this.monitors[x] == monitor && Objects.equals(this.sources[x], src)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void push(final IActionSource src, final NetworkMonitor<?> monitor) {
+            if (this.size == this.sources.length) {
+                final int capacity = this.size * 2;
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.monitors = Arrays.copyOf(this.monitors, capacity);
+                this.nested = Arrays.copyOf(this.nested, capacity);
+            }
+            this.sources[this.size] = src;
+            this.monitors[this.size] = monitor;
+            this.nested[this.size] = false;
+            this.size++;
+        }
+
+        private void finish(final IActionSource src) {
+            final int first = this.indexOf(src, 0);
+            if (first < 0) {
+                return;
+            }
+
+            final boolean isNested = this.nested[first];
+            int kept = first;
+            for (int x = first; x < this.size; x++) {
+                final NetworkMonitor<?> monitor = this.monitors[x];
+
+                if (Objects.equals(this.sources[x], src)) {
+                    monitor.isNested = isNested;
+                    if (monitor.isNested != monitor.wasNested) {
+                        monitor.wasNested = monitor.isNested;
+                        monitor.setForceUpdate(true);
+                    }
+                } else {
+                    this.sources[kept] = this.sources[x];
+                    this.monitors[kept] = monitor;
+                    this.nested[kept] = this.nested[x];
+                    kept++;
+                }
+            }
+
+            for (int x = kept; x < this.size; x++) {
+                this.sources[x] = null;
+                this.monitors[x] = null;
+            }
+            this.size = kept;
+        }
+    }
 }
@@ -18,8 +18,10 @@
 
 package appeng.me.cache;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -47,6 +49,8 @@ import appeng.core.AEConfig;
 import appeng.core.AppEng;
 import appeng.core.stats.IAdvancementTrigger;
 import appeng.me.Grid;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
 import appeng.me.pathfinding.*;
 import appeng.tile.networking.TileController;
 
@@ -66,6 +70,34 @@ public class PathGridCache implements IPathingGrid {
     // Flag to indicate a reboot should occur next tick
     private boolean reboot = true;
     private boolean booting = false;
+    /**
+     * Flag to indicate that only leaves were attached or detached since the last tick, which can be handled without
+     * rebooting the grid.
+     */
+    private boolean localRepath = false;
+    /**
+     * Nodes added since the last repath, that still have to be attached to the controller routes.
+     */
+    private final Set<IGridNode> pendingNodes = new HashSet<>();
+    private final List<GridConnection> pendingConnections = new ArrayList<>();
+    /**
+     * Leaves whose channels were already released, and whose removal therefore must not cause a repath.
+     */
+    private final Set<IGridNode> detachedLeaves = new HashSet<>();
+    /**
+     * Path items whose channel count was changed locally and still has to be finalized.
+     */
+    private final Set<IPathItem> dirtyPathItems = new HashSet<>();
+    /**
+     * Whether any node is missing a channel. Releasing a channel then has to give another node the chance to claim it.
+     */
+    private boolean starvedNodes = true;
+    /**
+     * Ticks spent on the ongoing calculation so far, and statistics of the last finished one.
+     */
+    private int pathingTicks = 0;
+    private int lastPathingTicks = 0;
+    private int lastPathItemsVisited = 0;
     private ControllerState controllerState = ControllerState.NO_CONTROLLER;
     private int lastChannels = 0;
     /**
@@ -85,6 +117,13 @@ public class PathGridCache implements IPathingGrid {
             this.recalcController();
         }
 
+        if (this.localRepath && !this.reboot) {
+            this.localRepath = false;
+            if (!this.applyLocalChanges()) {
+                this.repath();
+            }
+        }
+
         if (this.reboot) {
             this.reboot = false;
 
@@ -112,15 +151,22 @@ public class PathGridCache implements IPathingGrid {
                 this.grid.getPivot().beginVisit(new AdHocChannelUpdater(0));
             } else {
                 this.ongoingCalculation = new PathingCalculation(grid);
+                this.pathingTicks = 0;
             }
         }
 
         if (this.booting) {
-            // Work on remaining pathfinding work
+            // Work on remaining pathfinding work, the grid keeps booting until it is done
             if (ongoingCalculation != null) {
-                ongoingCalculation.compute();
+                this.pathingTicks++;
+                if (!ongoingCalculation.compute(AEConfig.instance().getPathingItemsPerTick())) {
+                    return;
+                }
+
                 this.channelsByBlocks = ongoingCalculation.getChannelsByBlocks();
                 this.channelsInUse = ongoingCalculation.getChannelsInUse();
+                this.lastPathItemsVisited = ongoingCalculation.getPathItemsVisited();
+                this.lastPathingTicks = this.pathingTicks;
                 ongoingCalculation = null;
             }
 
@@ -133,6 +179,14 @@ public class PathGridCache implements IPathingGrid {
                 }
             }
 
+            this.starvedNodes = false;
+            for (var node : this.nodesNeedingChannels) {
+                if (!node.meetsChannelRequirements()) {
+                    this.starvedNodes = true;
+                    break;
+                }
+            }
+
             // check for achievements
             this.achievementPost();
 
@@ -158,7 +212,9 @@ public class PathGridCache implements IPathingGrid {
             this.cannotCarryCompressedNodes.remove(gridNode);
         }
 
-        this.repath();
+        if (!this.detachedLeaves.remove(gridNode)) {
+            this.repath();
+        }
     }
 
     @Override
@@ -176,7 +232,174 @@ public class PathGridCache implements IPathingGrid {
             this.cannotCarryCompressedNodes.add(gridNode);
         }
 
-        this.repath();
+        if (this.canRepathLocally()) {
+            this.pendingNodes.add(gridNode);
+            this.localRepath = true;
+        } else {
+            this.repath();
+        }
+    }
+
+    /**
+     * Called before a new connection is added to its nodes. Connecting a new leaf to the grid is handled locally on the
+     * next tick, anything else reboots the grid.
+     */
+    public void onConnectionCreated(final GridConnection connection) {
+        if (this.canRepathLocally()) {
+            this.pendingConnections.add(connection);
+            this.localRepath = true;
+        } else {
+            this.repath();
+        }
+    }
+
+    /**
+     * Called before a connection is removed from its nodes. If it connected a leaf, the channels of the leaf are
+     * released along its route right away, while the topology is still intact. Anything else reboots the grid.
+     */
+    public void onConnectionDestroyed(final GridConnection connection) {
+        if (!this.canRepathLocally() || !this.pendingNodes.isEmpty() || !this.pendingConnections.isEmpty()) {
+            this.repath();
+            return;
+        }
+
+        // The controller side of a route is always side A, so a leaf can only be on side B.
+        final GridNode leaf = connection.b();
+        if (!this.isLocalLeaf(leaf) || leaf.getControllerRoute() != connection) {
+            this.repath();
+            return;
+        }
+
+        final int channels = leaf.getPathingChannels();
+        if (channels > 0) {
+            if (this.starvedNodes) {
+                this.repath();
+                return;
+            }
+
+            int pathItems = 2;
+            GridNode node = connection.a();
+            while (!(node.getOwner() instanceof TileController)) {
+                final GridConnection route = (GridConnection) node.getControllerRoute();
+                node.incrementChannelCount(-channels);
+                route.incrementChannelCount(-channels);
+                this.dirtyPathItems.add(node);
+                this.dirtyPathItems.add(route);
+                pathItems += 2;
+                node = route.getControllerRoute();
+            }
+
+            this.channelsInUse -= channels;
+            this.channelsByBlocks -= channels * pathItems;
+        }
+
+        this.dirtyPathItems.remove(leaf);
+        this.dirtyPathItems.remove(connection);
+        this.detachedLeaves.add(leaf);
+        this.localRepath = true;
+    }
+
+    private boolean canRepathLocally() {
+        return this.controllerState == ControllerState.CONTROLLER_ONLINE && !this.recalculateControllerNextTick
+                && !this.reboot && !this.booting && this.ongoingCalculation == null;
+    }
+
+    /**
+     * A leaf hangs off the grid by a single connection and does not affect how any other node is routed.
+     */
+    private boolean isLocalLeaf(final GridNode node) {
+        return node.getConnections().size() == 1 && !(node.getOwner() instanceof TileController)
+                && !node.hasFlag(GridFlags.MULTIBLOCK);
+    }
+
+    /**
+     * Attaches all pending leaves to the routes of their neighbours and finalizes the locally changed channel counts.
+     *
+     * @return false if the changes could not be handled locally, and the grid has to be rebooted instead
+     */
+    private boolean applyLocalChanges() {
+        final List<GridNode> attached = new ArrayList<>(this.pendingConnections.size());
+
+        for (final GridConnection connection : this.pendingConnections) {
+            final boolean aIsNew = this.pendingNodes.contains(connection.a());
+            if (aIsNew == this.pendingNodes.contains(connection.b())) {
+                return false;
+            }
+
+            final GridNode leaf = aIsNew ? connection.a() : connection.b();
+            final GridNode parent = aIsNew ? connection.b() : connection.a();
+            if (leaf.getGrid() != this.grid || parent.getGrid() != this.grid || !this.isLocalLeaf(leaf)
+                    || leaf.getControllerRoute() != connection || !this.attachLeaf(leaf, connection, parent)) {
+                return false;
+            }
+
+            this.pendingNodes.remove(leaf);
+            attached.add(leaf);
+        }
+
+        if (!this.pendingNodes.isEmpty()) {
+            return false;
+        }
+
+        for (final IPathItem pathItem : this.dirtyPathItems) {
+            pathItem.finalizeChannels();
+        }
+
+        // The rest of the grid never stopped running, only the new leaves need to learn that it is not booting.
+        for (final GridNode leaf : attached) {
+            this.grid.postEventTo(leaf, new MENetworkBootingStatusChange());
+        }
+
+        this.pendingConnections.clear();
+        this.detachedLeaves.clear();
+        this.dirtyPathItems.clear();
+
+        this.achievementPost();
+        this.setChannelPowerUsage(this.channelsByBlocks / 128.0);
+        return true;
+    }
+
+    /**
+     * Routes a new leaf through its only neighbour, and grants it a channel if it needs one.
+     *
+     * @return false if the leaf needs a channel that cannot be granted without a full repath
+     */
+    private boolean attachLeaf(final GridNode leaf, final GridConnection connection, final GridNode parent) {
+        connection.setControllerRoute(parent);
+        leaf.setControllerRoute(connection);
+        this.dirtyPathItems.add(connection);
+        this.dirtyPathItems.add(leaf);
+
+        if (!leaf.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
+            return true;
+        }
+
+        // Same checks as PathingCalculation#tryUseChannel, but walking the full route as there is no bottleneck map.
+        final boolean compressed = leaf.hasFlag(GridFlags.COMPRESSED_CHANNEL);
+        GridNode node = leaf;
+        while (!(node.getOwner() instanceof TileController)) {
+            if (node.getPathingChannels() >= node.getMaxChannels()
+                    || compressed && node.hasFlag(GridFlags.CANNOT_CARRY_COMPRESSED)) {
+                return false;
+            }
+            node = ((GridConnection) node.getControllerRoute()).getControllerRoute();
+        }
+
+        int pathItems = 0;
+        node = leaf;
+        while (!(node.getOwner() instanceof TileController)) {
+            final GridConnection route = (GridConnection) node.getControllerRoute();
+            node.incrementChannelCount(1);
+            route.incrementChannelCount(1);
+            this.dirtyPathItems.add(node);
+            this.dirtyPathItems.add(route);
+            pathItems += 2;
+            node = route.getControllerRoute();
+        }
+
+        this.channelsInUse++;
+        this.channelsByBlocks += pathItems;
+        return true;
     }
 
     private void recalcController() {
@@ -303,11 +526,30 @@ public class PathGridCache implements IPathingGrid {
 
         // clean up...
         this.ongoingCalculation = null;
+        this.localRepath = false;
+        this.pendingNodes.clear();
+        this.pendingConnections.clear();
+        this.detachedLeaves.clear();
+        this.dirtyPathItems.clear();
 
         this.channelsByBlocks = 0;
         this.reboot = true;
     }
 
+    /**
+     * @return the number of path items visited by the last finished channel calculation
+     */
+    public int getLastPathItemsVisited() {
+        return this.lastPathItemsVisited;
+    }
+
+    /**
+     * @return the number of ticks the last finished channel calculation was spread over
+     */
+    public int getLastPathingTicks() {
+        return this.lastPathingTicks;
+    }
+
     double getChannelPowerUsage() {
         return this.channelPowerUsage;
     }
@@ -19,7 +19,6 @@
 package appeng.me.cache;
 
 import java.util.HashMap;
-import java.util.PriorityQueue;
 
 import com.google.common.base.Preconditions;
 
@@ -36,32 +35,30 @@ import appeng.api.networking.ticking.ITickManager;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
 import appeng.me.cache.helpers.TickTracker;
+import appeng.me.cache.helpers.TickWheel;
 
 public class TickManagerCache implements ITickManager {
 
-    private final HashMap<IGridNode, TickTracker> alertable = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> sleeping = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> awake = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> laterTicker = new HashMap<>();
-    private final PriorityQueue<TickTracker> upcomingTicks = new PriorityQueue<>();
+    /**
+     * All tickable nodes, whether they are awake or sleeping is tracked by the {@link TickTracker} itself.
+     */
+    private final HashMap<IGridNode, TickTracker> trackers = new HashMap<>();
+    private final TickWheel upcomingTicks = new TickWheel();
 
     private long currentTick = 0;
+    private boolean ticking = false;
 
     public TickManagerCache(@SuppressWarnings("unused") final IGrid g) {
     }
 
     public long getAvgNanoTime(final IGridNode node) {
-        TickTracker tt = this.awake.get(node);
-
-        if (tt == null) {
-            tt = this.sleeping.get(node);
-        }
+        final TickTracker tt = this.trackers.get(node);
 
         if (tt == null) {
             return -1;
         }
 
-        return 0;
+        return Math.max(0, tt.getAvgNanos());
     }
 
     @Override
@@ -70,19 +67,14 @@ public class TickManagerCache implements ITickManager {
 
         try {
             this.currentTick++;
+            this.ticking = true;
+            this.upcomingTicks.beginTick(this.currentTick);
 
-            while (!this.upcomingTicks.isEmpty()) {
-                tt = this.upcomingTicks.peek();
-
-                // Stop once it reaches a TickTracker running at a later tick
-                if (tt.getNextTick() > this.currentTick) {
-                    break;
-                }
-
-                this.upcomingTicks.poll();
-
+            while ((tt = this.upcomingTicks.pollDue()) != null) {
                 final int diff = (int) (this.currentTick - tt.getLastTick());
+                final long start = System.nanoTime();
                 final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
+                tt.addTickTime(System.nanoTime() - start);
 
                 switch (mod) {
                     case FASTER:
@@ -106,10 +98,13 @@ public class TickManagerCache implements ITickManager {
                         break;
                 }
 
-                if (this.awake.containsKey(tt.getNode())) {
+                if (tt.isAwake()) {
                     this.addToQueue(tt);
                 }
             }
+
+            this.ticking = false;
+            this.upcomingTicks.finishTick();
         } catch (final Throwable t) {
             final CrashReport crashreport = CrashReport.makeCrashReport(t, "Ticking GridNode");
             final CrashReportCategory crashreportcategory = crashreport
@@ -121,15 +116,26 @@ public class TickManagerCache implements ITickManager {
 
     private void addToQueue(final TickTracker tt) {
         tt.setLastTick(this.currentTick);
-        this.upcomingTicks.add(tt);
+        this.schedule(tt);
+    }
+
+    /**
+     * Schedules the tracker for its next tick. Overdue trackers are ticked right away while ticking, and on the next
+     * tick otherwise.
+     */
+    private void schedule(final TickTracker tt) {
+        final long earliest = this.ticking ? this.currentTick : this.currentTick + 1;
+        this.upcomingTicks.schedule(tt, Math.max(tt.getNextTick(), earliest));
     }
 
     @Override
     public void removeNode(final IGridNode gridNode, final IGridHost machine) {
         if (machine instanceof IGridTickable) {
-            this.alertable.remove(gridNode);
-            this.sleeping.remove(gridNode);
-            this.awake.remove(gridNode);
+            final TickTracker tt = this.trackers.remove(gridNode);
+            if (tt != null) {
+                tt.setAwake(false);
+                this.upcomingTicks.remove(tt);
+            }
         }
     }
 
@@ -143,14 +149,14 @@ public class TickManagerCache implements ITickManager {
 
             final TickTracker tt = new TickTracker(tr, gridNode, (IGridTickable) machine, this.currentTick);
 
-            if (tr.canBeAlerted) {
-                this.alertable.put(gridNode, tt);
+            final TickTracker previous = this.trackers.put(gridNode, tt);
+            if (previous != null) {
+                previous.setAwake(false);
+                this.upcomingTicks.remove(previous);
             }
 
-            if (tr.isSleeping) {
-                this.sleeping.put(gridNode, tt);
-            } else {
-                this.awake.put(gridNode, tt);
+            if (!tr.isSleeping) {
+                tt.setAwake(true);
                 this.addToQueue(tt);
             }
         }
@@ -175,22 +181,20 @@ public class TickManagerCache implements ITickManager {
     public boolean alertDevice(final IGridNode node) {
         Preconditions.checkNotNull(node);
 
-        final TickTracker tt = this.alertable.get(node);
-        if (tt == null) {
+        final TickTracker tt = this.trackers.get(node);
+        if (tt == null || !tt.getRequest().canBeAlerted) {
             return false;
         }
 
         // set to awake, this is for sanity.
-        this.sleeping.remove(node);
-        this.awake.put(node, tt);
+        tt.setAwake(true);
 
         // configure sort.
         tt.setLastTick(tt.getLastTick() - tt.getRequest().maxTickRate);
         tt.setCurrentRate(tt.getRequest().minTickRate);
 
         // prevent dupes and tick build up.
-        this.upcomingTicks.remove(tt);
-        this.upcomingTicks.add(tt);
+        this.schedule(tt);
 
         return true;
     }
@@ -199,10 +203,10 @@ public class TickManagerCache implements ITickManager {
     public boolean sleepDevice(final IGridNode node) {
         Preconditions.checkNotNull(node);
 
-        if (this.awake.containsKey(node)) {
-            final TickTracker gt = this.awake.get(node);
-            this.awake.remove(node);
-            this.sleeping.put(node, gt);
+        // An already scheduled tick still happens, the device is just not rescheduled after it.
+        final TickTracker tt = this.trackers.get(node);
+        if (tt != null && tt.isAwake()) {
+            tt.setAwake(false);
 
             return true;
         }
@@ -214,12 +218,10 @@ public class TickManagerCache implements ITickManager {
     public boolean wakeDevice(final IGridNode node) {
         Preconditions.checkNotNull(node);
 
-        if (this.sleeping.containsKey(node)) {
-            final TickTracker gt = this.sleeping.get(node);
-            this.sleeping.remove(node);
-            this.awake.put(node, gt);
-            this.upcomingTicks.remove(gt);
-            this.addToQueue(gt);
+        final TickTracker tt = this.trackers.get(node);
+        if (tt != null && !tt.isAwake()) {
+            tt.setAwake(true);
+            this.addToQueue(tt);
 
             return true;
         }
@@ -18,8 +18,6 @@
 
 package appeng.me.cache.helpers;
 
-import javax.annotation.Nonnull;
-
 import net.minecraft.crash.CrashReportCategory;
 
 import appeng.api.networking.IGridNode;
@@ -28,7 +26,7 @@ import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.parts.IPart;
 import appeng.api.util.DimensionalCoord;
 
-public class TickTracker implements Comparable<TickTracker> {
+public class TickTracker {
 
     private final TickingRequest request;
     private final IGridTickable gt;
@@ -36,6 +34,14 @@ public class TickTracker implements Comparable<TickTracker> {
 
     private long lastTick;
     private int currentRate;
+    private long avgNanos = -1;
+    private boolean awake;
+
+    // Position in the TickWheel, maintained by the wheel itself.
+    long dueTick;
+    boolean queued;
+    TickTracker prev;
+    TickTracker next;
 
     public TickTracker(final TickingRequest req, final IGridNode node, final IGridTickable gt, final long currentTick) {
         this.request = req;
@@ -45,24 +51,6 @@ public class TickTracker implements Comparable<TickTracker> {
         this.setLastTick(currentTick);
     }
 
-    @Override
-    public int compareTo(@Nonnull final TickTracker t) {
-        int next = Long.compare(this.getNextTick(), t.getNextTick());
-
-        if (next != 0) {
-            return next;
-        }
-
-        int last = Long.compare(this.getLastTick(), t.getLastTick());
-
-        if (last != 0) {
-            return last;
-        }
-
-        return Integer.compare(this.getCurrentRate(), t.getCurrentRate());
-
-    }
-
     public void addEntityCrashInfo(final CrashReportCategory crashreportcategory) {
         if (this.getGridTickable() instanceof IPart) {
             final IPart part = (IPart) this.getGridTickable();
@@ -103,6 +91,29 @@ public class TickTracker implements Comparable<TickTracker> {
         this.lastTick = lastTick;
     }
 
+    /**
+     * @return the moving average of how long a tick of this device took, or -1 if it has not ticked yet
+     */
+    public long getAvgNanos() {
+        return this.avgNanos;
+    }
+
+    public void addTickTime(final long nanos) {
+        // weighs the last tick with 1/8th, enough to smooth out single slow ticks
+        this.avgNanos = this.avgNanos < 0 ? nanos : this.avgNanos + ((nanos - this.avgNanos) >> 3);
+    }
+
+    /**
+     * @return true if the device is rescheduled after each tick, false if it is sleeping
+     */
+    public boolean isAwake() {
+        return this.awake;
+    }
+
+    public void setAwake(final boolean awake) {
+        this.awake = awake;
+    }
+
     public IGridNode getNode() {
         return this.node;
     }
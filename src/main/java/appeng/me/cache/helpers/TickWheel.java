@@ -0,0 +1,122 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+/**
+ * A hashed timing wheel of {@link TickTracker}s, keyed by the tick they are due at.
+ * <p>
+ * Each slot is an intrusive doubly linked list through the trackers themselves, so scheduling, rescheduling and
+ * removing a tracker never allocates and takes constant time. Trackers due more than one lap ahead simply stay in their
+ * slot until their lap comes around.
+ * <p>
+ * Ticks must be processed in order without skipping any, by calling {@link #beginTick(long)}, polling
+ * {@link #pollDue()} until it returns null and then calling {@link #finishTick()}. Trackers scheduled for the current
+ * tick while it is being processed are still returned by the same pass.
+ */
+public class TickWheel {
+
+    private static final int SLOTS = 256;
+    private static final int MASK = SLOTS - 1;
+
+    private final TickTracker[] heads = new TickTracker[SLOTS];
+    private final TickTracker[] tails = new TickTracker[SLOTS];
+
+    private long currentTick = Long.MIN_VALUE;
+    private int currentSlot = -1;
+    /**
+     * The next tracker of the current slot to look at.
+     */
+    private TickTracker cursor;
+
+    public void schedule(final TickTracker tt, final long tick) {
+        this.remove(tt);
+
+        final int slot = (int) (tick & MASK);
+        tt.dueTick = tick;
+        tt.queued = true;
+        tt.prev = this.tails[slot];
+        tt.next = null;
+
+        if (this.tails[slot] == null) {
+            this.heads[slot] = tt;
+        } else {
+            this.tails[slot].next = tt;
+        }
+        this.tails[slot] = tt;
+
+        if (slot == this.currentSlot && this.cursor == null) {
+            this.cursor = tt;
+        }
+    }
+
+    public void remove(final TickTracker tt) {
+        if (!tt.queued) {
+            return;
+        }
+
+        final int slot = (int) (tt.dueTick & MASK);
+        if (tt == this.cursor) {
+            this.cursor = tt.next;
+        }
+
+        if (tt.prev == null) {
+            this.heads[slot] = tt.next;
+        } else {
+            tt.prev.next = tt.next;
+        }
+        if (tt.next == null) {
+            this.tails[slot] = tt.prev;
+        } else {
+            tt.next.prev = tt.prev;
+        }
+
+        tt.prev = null;
+        tt.next = null;
+        tt.queued = false;
+    }
+
+    public void beginTick(final long tick) {
+        this.currentTick = tick;
+        this.currentSlot = (int) (tick & MASK);
+        this.cursor = this.heads[this.currentSlot];
+    }
+
+    /**
+     * Removes and returns the next tracker due at the current tick.
+     *
+     * @return the tracker, or null if none are left
+     */
+    public TickTracker pollDue() {
+        while (this.cursor != null) {
+            final TickTracker tt = this.cursor;
+            this.cursor = tt.next;
+
+            if (tt.dueTick <= this.currentTick) {
+                this.remove(tt);
+                return tt;
+            }
+        }
+        return null;
+    }
+
+    public void finishTick() {
+        this.currentSlot = -1;
+        this.cursor = null;
+    }
+}
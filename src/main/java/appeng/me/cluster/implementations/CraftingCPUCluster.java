@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableList;
 
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -84,6 +85,12 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     private final List<TileCraftingMonitorTile> status = new ArrayList<>();
     private final HashMap<IMEMonitorHandlerReceiver<IAEItemStack>, Object> listeners = new HashMap<>();
     private final Map<ICraftingPatternDetails, Queue<ICraftingMedium>> visitedMediums = new HashMap<>();
+    /**
+     * tasks which could not fire for lack of inputs, they are only checked again once one of the items they wait for is
+     * injected into this cpu.
+     */
+    private final Set<ICraftingPatternDetails> blockedTasks = new HashSet<>();
+    private final Map<Item, Set<ICraftingPatternDetails>> blockedTasksByItem = new HashMap<>();
     private ICraftingLink myLastLink;
     private String myName = "";
     private boolean isDestroyed = false;
@@ -302,6 +309,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                     }
 
                     // 2000
+                    this.unblockTasks(what);
                     return this.inventory.injectItems(what, type, src);
                 }
 
@@ -332,6 +340,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                     return leftover; // ignore it.
                 }
 
+                this.unblockTasks(insert);
                 this.inventory.injectItems(insert, type, src);
                 this.markDirty();
 
@@ -467,6 +476,39 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         return null;
     }
 
+    private void blockTask(final ICraftingPatternDetails details) {
+        if (!this.blockedTasks.add(details)) {
+            return;
+        }
+
+        final IAEItemStack[] inputs = details.getInputs();
+        for (int x = 0; x < inputs.length; x++) {
+            if (inputs[x] != null) {
+                this.blockedTasksByItem.computeIfAbsent(inputs[x].getItem(), k -> new HashSet<>()).add(details);
+
+                if (details.canSubstitute()) {
+                    for (final IAEItemStack substitute : details.getSubstituteInputs(x)) {
+                        this.blockedTasksByItem.computeIfAbsent(substitute.getItem(), k -> new HashSet<>())
+                                .add(details);
+                    }
+                }
+            }
+        }
+    }
+
+    private void unblockTasks(final IAEItemStack arrived) {
+        final Set<ICraftingPatternDetails> waiting = this.blockedTasksByItem.remove(arrived.getItem());
+
+        if (waiting != null) {
+            this.blockedTasks.removeAll(waiting);
+        }
+    }
+
+    private void clearBlockedTasks() {
+        this.blockedTasks.clear();
+        this.blockedTasksByItem.clear();
+    }
+
     private boolean canCraft(final ICraftingPatternDetails details, final IAEItemStack[] condensedInputs) {
         if (!details.isCraftable()) {
             // Processing patterns are relatively easy
@@ -564,6 +606,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         this.isComplete = true;
         this.myLastLink = null;
         this.tasks.clear();
+        this.clearBlockedTasks();
 
         // final ImmutableSet<IAEItemStack> items = ImmutableSet.copyOf( this.waitingFor );
         final List<IAEItemStack> items = new ArrayList<>(this.waitingFor.size());
@@ -610,6 +653,13 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             return;
         }
 
+        // every task is waiting for items to come back, nothing can fire until they do.
+        if (this.blockedTasks.containsAll(this.tasks.keySet())) {
+            // this tick used no operations, let them free up as usual.
+            this.shiftUsedOps(0);
+            return;
+        }
+
         this.remainingOperations = this.accelerator + 1 - (this.usedOps[0] + this.usedOps[1] + this.usedOps[2]);
         final int started = this.remainingOperations;
 
@@ -619,15 +669,19 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 this.executeCrafting(eg, cc);
             } while (this.somethingChanged && this.remainingOperations > 0);
         }
-        this.usedOps[2] = this.usedOps[1];
-        this.usedOps[1] = this.usedOps[0];
-        this.usedOps[0] = started - this.remainingOperations;
+        this.shiftUsedOps(started - this.remainingOperations);
 
         if (this.remainingOperations > 0 && !this.somethingChanged) {
             this.waiting = true;
         }
     }
 
+    private void shiftUsedOps(final int used) {
+        this.usedOps[2] = this.usedOps[1];
+        this.usedOps[1] = this.usedOps[0];
+        this.usedOps[0] = used;
+    }
+
     private void executeCrafting(final IEnergyGrid eg, final CraftingGridCache cc) {
         final Iterator<Entry<ICraftingPatternDetails, TaskProgress>> i = this.tasks.entrySet().iterator();
 
@@ -635,13 +689,20 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             final Entry<ICraftingPatternDetails, TaskProgress> e = i.next();
 
             if (e.getValue().value <= 0) {
+                this.blockedTasks.remove(e.getKey());
                 i.remove();
                 continue;
             }
 
             final ICraftingPatternDetails details = e.getKey();
 
-            if (this.canCraft(details, details.getCondensedInputs())) {
+            if (this.blockedTasks.contains(details)) {
+                continue;
+            }
+
+            if (!this.canCraft(details, details.getCondensedInputs())) {
+                this.blockTask(details);
+            } else {
                 InventoryCrafting ic = null;
 
                 if (!visitedMediums.containsKey(details) || visitedMediums.get(details).isEmpty()) {
@@ -658,6 +719,23 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                     }
 
                     if (m != null && !m.isBusy()) {
+                        if (ic == null && !details.isCraftable()) {
+                            final int copies = this.getBulkCopies(details, m, e.getValue().value, eg);
+
+                            if (copies > 1 && this.pushPatternCopies(details, m, copies, eg)) {
+                                e.getValue().value -= copies;
+                                if (e.getValue().value <= 0) {
+                                    continue;
+                                }
+
+                                if (this.remainingOperations <= 0) {
+                                    return;
+                                }
+
+                                continue;
+                            }
+                        }
+
                         if (ic == null) {
                             final IAEItemStack[] input = details.getInputs();
                             double sum = 0;
@@ -815,6 +893,111 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
     }
 
+    /**
+     * Determines how many copies of a processing pattern can be handed to the medium in a single push, limited by
+     * what the medium accepts, the remaining operations of this tick, the stored inputs, the available power and the
+     * stack size of each input slot.
+     */
+    private int getBulkCopies(final ICraftingPatternDetails details, final ICraftingMedium m, final long remaining,
+            final IEnergyGrid eg) {
+        long copies = Math.min(Math.min(m.getMaxPatternCopies(details), this.remainingOperations), remaining);
+
+        if (copies <= 1) {
+            return 1;
+        }
+
+        for (final IAEItemStack input : details.getCondensedInputs()) {
+            final IAEItemStack stored = this.inventory.getItemList().findPrecise(input);
+            copies = Math.min(copies, stored == null ? 0 : stored.getStackSize() / input.getStackSize());
+        }
+
+        double sum = 0;
+        for (final IAEItemStack input : details.getInputs()) {
+            if (input != null) {
+                copies = Math.min(copies, Math.max(1, input.getDefinition().getMaxStackSize() / input.getStackSize()));
+                sum += input.getStackSize();
+            }
+        }
+
+        if (copies > 1 && sum > 0) {
+            final double available = eg.extractAEPower(sum * copies, Actionable.SIMULATE, PowerMultiplier.CONFIG);
+            copies = Math.min(copies, (long) ((available + 0.01) / sum));
+        }
+
+        return (int) Math.max(1, copies);
+    }
+
+    /**
+     * Pushes several copies of a processing pattern at once, with every input slot holding the combined input of all
+     * copies. Inputs, power and the awaited outputs are accounted for in one go.
+     *
+     * @return false if the medium refused the push, in which case nothing was consumed
+     */
+    private boolean pushPatternCopies(final ICraftingPatternDetails details, final ICraftingMedium m,
+            final int copies, final IEnergyGrid eg) {
+        final IAEItemStack[] input = details.getInputs();
+        final InventoryCrafting ic = new InventoryCrafting(new ContainerNull(), PatternHelper.PROCESSING_INPUT_WIDTH,
+                PatternHelper.PROCESSING_INPUT_HEIGHT);
+        double sum = 0;
+
+        for (int x = 0; x < input.length; x++) {
+            if (input[x] != null) {
+                sum += input[x].getStackSize();
+
+                final IAEItemStack request = input[x].copy();
+                request.setStackSize(input[x].getStackSize() * copies);
+
+                final IAEItemStack ais = this.inventory.extractItems(request, Actionable.MODULATE, this.machineSrc);
+                if (ais != null) {
+                    ic.setInventorySlotContents(x, ais.createItemStack());
+                }
+
+                if (ais == null || ais.getStackSize() < request.getStackSize()) {
+                    this.returnItems(ic);
+                    return false;
+                }
+            }
+        }
+
+        if (!m.pushPatterns(details, ic, copies)) {
+            this.returnItems(ic);
+            return false;
+        }
+
+        eg.extractAEPower(sum * copies, Actionable.MODULATE, PowerMultiplier.CONFIG);
+
+        this.somethingChanged = true;
+        this.remainingOperations -= copies;
+
+        for (final IAEItemStack in : input) {
+            if (in != null) {
+                final IAEItemStack used = in.copy();
+                used.setStackSize(in.getStackSize() * copies);
+                this.postChange(used, this.machineSrc);
+            }
+        }
+
+        for (final IAEItemStack out : details.getCondensedOutputs()) {
+            final IAEItemStack expected = out.copy();
+            expected.setStackSize(out.getStackSize() * copies);
+            this.postChange(expected, this.machineSrc);
+            this.waitingFor.add(expected.copy());
+            this.postCraftingStatusChange(expected.copy());
+        }
+
+        this.markDirty();
+        return true;
+    }
+
+    private void returnItems(final InventoryCrafting ic) {
+        for (int x = 0; x < ic.getSizeInventory(); x++) {
+            final ItemStack is = ic.getStackInSlot(x);
+            if (!is.isEmpty()) {
+                this.inventory.injectItems(AEItemStack.fromItemStack(is), Actionable.MODULATE, this.machineSrc);
+            }
+        }
+    }
+
     private void storeItems() {
         Preconditions.checkState(isComplete, "CPU should be complete to prevent re-insertion when dumping items");
         final IGrid g = this.getGrid();
@@ -830,10 +1013,14 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         IItemList<IAEItemStack> itemList = this.inventory.getItemList();
         for (IAEItemStack is : itemList) {
             this.postChange(is, this.machineSrc);
-            IAEItemStack remainder = ii.injectItems(is.copy(), Actionable.MODULATE, this.machineSrc);
+        }
+
+        final IItemList<IAEItemStack> notStored = ii.injectItems(itemList, Actionable.MODULATE, this.machineSrc);
+        for (IAEItemStack is : itemList) {
+            final IAEItemStack remainder = notStored.findPrecise(is);
 
             // The network was unable to receive all of the items, i.e. no or not enough storage space left
-            if (remainder != null) {
+            if (remainder != null && remainder.getStackSize() > 0) {
                 is.setStackSize(remainder.getStackSize());
             } else {
                 is.reset();
@@ -868,6 +1055,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
         try {
             this.waitingFor.resetStatus();
+            this.clearBlockedTasks();
             ((CraftingJob) job).getTree().setJob(ci, this, src);
             if (ci.commit(src)) {
                 this.finalOutput = job.getOutput();
@@ -925,7 +1113,13 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     @Override
     public boolean isBusy() {
 
-        this.tasks.entrySet().removeIf(taskProgressEntry -> taskProgressEntry.getValue().value <= 0);
+        this.tasks.entrySet().removeIf(taskProgressEntry -> {
+            if (taskProgressEntry.getValue().value <= 0) {
+                this.blockedTasks.remove(taskProgressEntry.getKey());
+                return true;
+            }
+            return false;
+        });
 
         if (!this.waitingFor.isEmpty() || !this.tasks.isEmpty()) {
             this.updateElapsedTime();
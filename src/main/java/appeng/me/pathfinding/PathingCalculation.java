@@ -44,6 +44,9 @@ import appeng.tile.networking.TileController;
  * checking the channel count of a few key nodes (max 3) along the path.
  * <p>
  * Second, a DFS is performed to propagate the channel count upwards.
+ * <p>
+ * Both passes can be suspended after a number of visited path items and resumed on a later tick, see
+ * {@link #compute(int)}.
  */
 public class PathingCalculation {
     private final IGrid grid;
@@ -81,6 +84,20 @@ public class PathingCalculation {
      * Tracks the total number of channels for each path item is using.
      */
     private int channelsByBlocks = 0;
+    /**
+     * The BFS queue currently being processed, 3 once the BFS pass is done.
+     */
+    private int currentQueue = 0;
+    /**
+     * The DFS stack, created once the BFS pass is done.
+     */
+    private List<Object> stack = null;
+    private Set<IPathItem> controllerNodes = null;
+    private boolean finished = false;
+    /**
+     * Tracks the total number of path items visited by both passes.
+     */
+    private int pathItemsVisited = 0;
 
     /**
      * Create a new pathing calculation from the passed grid.
@@ -123,18 +140,53 @@ public class PathingCalculation {
         queues[index].add(pathItem);
     }
 
-    public void compute() {
+    /**
+     * Continues the calculation where the last call stopped.
+     *
+     * @param budget the number of path items to visit before suspending, or 0 to run to completion
+     * @return true once the calculation is finished
+     */
+    public boolean compute(int budget) {
+        if (this.finished) {
+            return true;
+        }
+
+        int remaining = budget > 0 ? budget : Integer.MAX_VALUE;
+
         // BFS pass
-        for (int i = 0; i < 3; ++i) {
-            processQueue(queues[i], i);
+        while (currentQueue < 3) {
+            remaining = processQueue(queues[currentQueue], currentQueue, remaining);
+            if (!queues[currentQueue].isEmpty()) {
+                return false;
+            }
+            currentQueue++;
         }
 
         // DFS pass
-        propagateAssignments();
+        if (stack == null) {
+            startPropagation();
+        }
+        propagateAssignments(remaining);
+        if (!stack.isEmpty()) {
+            return false;
+        }
+
+        // Give a channel to all nodes that are a part of a multiblock that was given a channel before.
+        for (var multiblockNode : multiblocksWithChannel) {
+            multiblockNode.incrementChannelCount(1);
+        }
+
+        this.finished = true;
+        return true;
     }
 
-    private void processQueue(Queue<IPathItem> oldOpen, int queueIndex) {
-        while (!oldOpen.isEmpty()) {
+    /**
+     * @return the budget left after processing
+     */
+    private int processQueue(Queue<IPathItem> oldOpen, int queueIndex, int remaining) {
+        while (!oldOpen.isEmpty() && remaining > 0) {
+            remaining--;
+            pathItemsVisited++;
             IPathItem i = oldOpen.poll();
             for (IPathItem pi : i.getPossibleOptions()) {
                 if (!this.visited.contains(pi)) {
@@ -165,6 +217,7 @@ public class PathingCalculation {
                 }
             }
         }
+        return remaining;
     }
 
     /**
@@ -201,12 +254,9 @@ public class PathingCalculation {
 
     private static final Object SUBTREE_END = new Object();
 
-    /**
-     * Propagates assignment to all nodes by performing a DFS. The implementation is iterative to avoid stack overflow.
-     */
-    private void propagateAssignments() {
-        List<Object> stack = new ArrayList<>();
-        Set<IPathItem> controllerNodes = new HashSet<>();
+    private void startPropagation() {
+        stack = new ArrayList<>();
+        controllerNodes = new HashSet<>();
 
         for (var node : grid.getMachineNodes(TileController.class)) {
             controllerNodes.add((IPathItem) node);
@@ -217,7 +267,12 @@ public class PathingCalculation {
                 }
             }
         }
+    }
 
+    /**
+     * Propagates assignment to all nodes by performing a DFS. The implementation is iterative to avoid stack overflow.
+     */
+    private void propagateAssignments(int remaining) {
         while (!stack.isEmpty()) {
             Object current = stack.get(stack.size() - 1);
             if (current == SUBTREE_END) {
@@ -234,6 +289,12 @@ public class PathingCalculation {
                     channelsByBlocks += ((GridConnection) item).propagateChannelsUpwards();
                 }
             } else {
+                if (remaining == 0) {
+                    return;
+                }
+                remaining--;
+                pathItemsVisited++;
+
                 stack.add(SUBTREE_END);
                 for (var pi : ((IPathItem) current).getPossibleOptions()) {
                     // The neighbor could either be: a child, the parent, or in a different tree if it is closer to
@@ -245,11 +306,6 @@ public class PathingCalculation {
                 }
             }
         }
-
-        // Give a channel to all nodes that are a part of a multiblock that was given a channel before.
-        for (var multiblockNode : multiblocksWithChannel) {
-            multiblockNode.incrementChannelCount(1);
-        }
     }
 
     public int getChannelsInUse() {
@@ -259,4 +315,8 @@ public class PathingCalculation {
     public int getChannelsByBlocks() {
         return channelsByBlocks;
     }
+
+    public int getPathItemsVisited() {
+        return pathItemsVisited;
+    }
 }
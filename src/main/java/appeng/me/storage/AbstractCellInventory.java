@@ -18,16 +18,30 @@
 
 package appeng.me.storage;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.netty.buffer.Unpooled;
+
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.items.IItemHandler;
 
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import appeng.api.config.Actionable;
 import appeng.api.config.FuzzyMode;
 import appeng.api.implementations.items.IStorageCell;
+import appeng.api.networking.security.IActionSource;
 import appeng.api.storage.ICellInventory;
 import appeng.api.storage.ISaveProvider;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
+import appeng.core.AELog;
 import appeng.util.Platform;
 
 /**
@@ -41,6 +55,8 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
     private static final String ITEM_COUNT_TAG = "ic";
     private static final String ITEM_SLOT = "#";
     private static final String ITEM_SLOT_COUNT = "@";
+    private static final String ITEM_PACKED_TAG = "pk";
+    private static final int PACKED_FORMAT = 1;
     protected static final String ITEM_PRE_FORMATTED_COUNT = "PF";
     protected static final String ITEM_PRE_FORMATTED_SLOT = "PF#";
     protected static final String ITEM_PRE_FORMATTED_NAME = "PN";
@@ -58,6 +74,20 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
     protected final int itemsPerByte;
     private boolean isPersisted = true;
 
+    // batch operations notify the container once at the end, simulated batches reserve the space they would use.
+    private boolean deferSave;
+    private boolean savePending;
+    private short simulatedItemTypes;
+    private long simulatedItemCount;
+
+    // persisted layout: the item in each slot, and which slots changed since the last save (one bit per slot).
+    private final List<T> slotItems = new ArrayList<>();
+    private final List<byte[]> packedDefinitions = new ArrayList<>();
+    private final Object2IntOpenHashMap<T> slotIndex = new Object2IntOpenHashMap<>();
+    private long dirtyDefinitions;
+    private long dirtyCounts;
+    private int persistedSlots;
+
     static {
         for (int x = 0; x < MAX_ITEM_TYPES; x++) {
             ITEM_SLOT_KEYS[x] = ITEM_SLOT + x;
@@ -83,6 +113,7 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
         this.storedItemTypes = this.tagCompound.getShort(ITEM_TYPE_TAG);
         this.storedItemCount = this.tagCompound.getLong(ITEM_COUNT_TAG);
         this.cellItems = null;
+        this.slotIndex.defaultReturnValue(-1);
     }
 
     protected IItemList<T> getCellItems() {
@@ -100,56 +131,173 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
             return;
         }
 
-        long itemCount = 0;
-
-        // add new pretty stuff...
-        int x = 0;
-        for (final T v : this.cellItems) {
-            itemCount += v.getStackSize();
-
-            final NBTTagCompound g = new NBTTagCompound();
-            v.writeToNBT(g);
-            this.tagCompound.setTag(ITEM_SLOT_KEYS[x], g);
-            this.tagCompound.setLong(ITEM_SLOT_COUNT_KEYS[x], v.getStackSize());
-
-            x++;
+        if (AEConfig.instance().isPackedCellStorage()) {
+            this.persistPacked();
+        } else {
+            this.persistSlots();
         }
 
-        final short oldStoredItems = this.storedItemTypes;
-
-        this.storedItemTypes = (short) this.cellItems.size();
-        if (this.cellItems.isEmpty()) {
+        if (this.storedItemTypes == 0) {
             this.tagCompound.removeTag(ITEM_TYPE_TAG);
         } else {
             this.tagCompound.setShort(ITEM_TYPE_TAG, this.storedItemTypes);
         }
 
-        this.storedItemCount = itemCount;
-        if (itemCount == 0) {
+        if (this.storedItemCount == 0) {
             this.tagCompound.removeTag(ITEM_COUNT_TAG);
         } else {
-            this.tagCompound.setLong(ITEM_COUNT_TAG, itemCount);
+            this.tagCompound.setLong(ITEM_COUNT_TAG, this.storedItemCount);
+        }
+
+        this.dirtyDefinitions = 0;
+        this.dirtyCounts = 0;
+        this.isPersisted = true;
+    }
+
+    /**
+     * Writes the slots which changed since the last save, a tag per type and one per count.
+     */
+    private void persistSlots() {
+        if (this.tagCompound.hasKey(ITEM_PACKED_TAG)) {
+            // switching back from the packed format, every slot has to be written again.
+            this.tagCompound.removeTag(ITEM_PACKED_TAG);
+            this.markAllSlotsDirty();
+        }
+
+        final int slots = this.slotItems.size();
+        for (int x = 0; x < slots; x++) {
+            final long bit = 1L << x;
+            final T v = this.slotItems.get(x);
+
+            if ((this.dirtyDefinitions & bit) != 0) {
+                final NBTTagCompound g = new NBTTagCompound();
+                v.writeToNBT(g);
+                this.tagCompound.setTag(ITEM_SLOT_KEYS[x], g);
+            }
+
+            if ((this.dirtyCounts & bit) != 0) {
+                this.tagCompound.setLong(ITEM_SLOT_COUNT_KEYS[x], v.getStackSize());
+            }
         }
 
         // clean any old crusty stuff...
-        for (; x >= oldStoredItems && x < this.maxItemTypes; x++) {
+        this.removeSlotTags(slots);
+    }
+
+    /**
+     * Writes all slots as a single byte array, a table of the stored types followed by their counts. The encoded types
+     * are kept, so only changed slots have to be encoded again.
+     */
+    private void persistPacked() {
+        final int slots = this.slotItems.size();
+        final PacketBuffer data = new PacketBuffer(Unpooled.buffer());
+
+        data.writeVarInt(PACKED_FORMAT);
+        data.writeVarInt(slots);
+
+        for (int x = 0; x < slots; x++) {
+            byte[] definition = this.packedDefinitions.get(x);
+
+            if (definition == null || (this.dirtyDefinitions & 1L << x) != 0) {
+                final NBTTagCompound g = new NBTTagCompound();
+                this.slotItems.get(x).writeToNBT(g);
+
+                final PacketBuffer encoded = new PacketBuffer(Unpooled.buffer());
+                encoded.writeCompoundTag(g);
+                definition = new byte[encoded.readableBytes()];
+                encoded.readBytes(definition);
+                this.packedDefinitions.set(x, definition);
+            }
+
+            data.writeBytes(definition);
+        }
+
+        for (int x = 0; x < slots; x++) {
+            data.writeVarLong(this.slotItems.get(x).getStackSize());
+        }
+
+        final byte[] packed = new byte[data.readableBytes()];
+        data.readBytes(packed);
+        this.tagCompound.setByteArray(ITEM_PACKED_TAG, packed);
+
+        // upgrade from the tag per slot format.
+        this.removeSlotTags(0);
+    }
+
+    private void removeSlotTags(final int from) {
+        for (int x = from; x < this.persistedSlots; x++) {
             this.tagCompound.removeTag(ITEM_SLOT_KEYS[x]);
             this.tagCompound.removeTag(ITEM_SLOT_COUNT_KEYS[x]);
         }
 
-        this.isPersisted = true;
+        this.persistedSlots = from;
     }
 
     protected void saveChanges() {
         // recalculate values
-        this.storedItemTypes = (short) this.cellItems.size();
-        this.storedItemCount = 0;
+        this.recountStoredItems();
+        this.rebuildSlots();
+        this.queueSave();
+    }
+
+    /**
+     * Records a change to the stored items by adjusting the totals with its difference, so the cost does not depend on
+     * how many types the cell holds. Only the slot of the changed item will be written on the next save. With debug
+     * logging enabled the totals are verified against a full recount.
+     *
+     * @param changed    the item whose amount changed
+     * @param typesDelta number of item types added (positive) or removed (negative) by the change
+     * @param countDelta number of items added (positive) or removed (negative) by the change
+     */
+    protected void saveChanges(final T changed, final int typesDelta, final long countDelta) {
+        this.storedItemTypes += typesDelta;
+        this.storedItemCount += countDelta;
+
+        if (AELog.isDebugLogEnabled()) {
+            final short types = this.countStoredTypes();
+            final long count = this.countStoredItems();
+
+            if (types != this.storedItemTypes || count != this.storedItemCount) {
+                AELog.debug("Cell totals out of sync, tracked %d types / %d items, counted %d types / %d items",
+                        this.storedItemTypes, this.storedItemCount, types, count);
+            }
+        }
+
+        this.updateSlot(changed);
+        this.queueSave();
+    }
+
+    private void recountStoredItems() {
+        this.storedItemTypes = this.countStoredTypes();
+        this.storedItemCount = this.countStoredItems();
+    }
+
+    /**
+     * Emptied types stay in the item list until they are filled again, so only the non-empty entries are counted.
+     */
+    private short countStoredTypes() {
+        short types = 0;
         for (final T v : this.cellItems) {
-            this.storedItemCount += v.getStackSize();
+            if (v.getStackSize() > 0) {
+                types++;
+            }
         }
+        return types;
+    }
 
+    private long countStoredItems() {
+        long count = 0;
+        for (final T v : this.cellItems) {
+            count += v.getStackSize();
+        }
+        return count;
+    }
+
+    private void queueSave() {
         this.isPersisted = false;
-        if (this.container != null) {
+        if (this.deferSave) {
+            this.savePending = true;
+        } else if (this.container != null) {
             this.container.saveChanges(this);
         } else {
             // if there is no ISaveProvider, store to NBT immediately
@@ -157,35 +305,229 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
         }
     }
 
+    /**
+     * Moves the slot of the changed item along. Slots are kept dense, so an emptied slot is filled with the last one.
+     */
+    private void updateSlot(final T changed) {
+        final T stored = this.cellItems.findPrecise(changed);
+        final int slot = this.slotIndex.getInt(changed);
+
+        if (stored != null && stored.getStackSize() > 0) {
+            if (slot < 0) {
+                this.addSlot(stored);
+            } else {
+                this.slotItems.set(slot, stored);
+                this.dirtyCounts |= 1L << slot;
+            }
+        } else if (slot >= 0) {
+            final int last = this.slotItems.size() - 1;
+
+            this.slotIndex.removeInt(this.slotItems.get(slot));
+            if (slot != last) {
+                final T moved = this.slotItems.get(last);
+                this.slotItems.set(slot, moved);
+                this.packedDefinitions.set(slot, this.packedDefinitions.get(last));
+                this.slotIndex.put(moved, slot);
+                this.dirtyDefinitions |= 1L << slot;
+                this.dirtyCounts |= 1L << slot;
+            }
+
+            this.slotItems.remove(last);
+            this.packedDefinitions.remove(last);
+        }
+    }
+
+    private void addSlot(final T stored) {
+        final int slot = this.slotItems.size();
+
+        this.slotItems.add(stored);
+        this.packedDefinitions.add(null);
+        this.slotIndex.put(stored, slot);
+        this.dirtyDefinitions |= 1L << slot;
+        this.dirtyCounts |= 1L << slot;
+    }
+
+    private void rebuildSlots() {
+        this.slotItems.clear();
+        this.packedDefinitions.clear();
+        this.slotIndex.clear();
+
+        for (final T v : this.cellItems) {
+            this.addSlot(v);
+        }
+    }
+
+    private void markAllSlotsDirty() {
+        final int slots = this.slotItems.size();
+        final long all = slots >= Long.SIZE ? -1L : (1L << slots) - 1;
+
+        this.dirtyDefinitions = all;
+        this.dirtyCounts = all;
+    }
+
     private void loadCellItems() {
         if (this.cellItems == null) {
             this.cellItems = this.getChannel().createList();
         }
 
         this.cellItems.resetStatus(); // clears totals and stuff.
+        this.slotItems.clear();
+        this.packedDefinitions.clear();
+        this.slotIndex.clear();
 
-        final long types = this.getStoredItemTypes();
         boolean needsUpdate = false;
 
-        for (int slot = 0; slot < types; slot++) {
-            NBTTagCompound compoundTag = this.tagCompound.getCompoundTag(ITEM_SLOT_KEYS[slot]);
-            long stackSize = this.tagCompound.getLong(ITEM_SLOT_COUNT_KEYS[slot]);
-            needsUpdate |= !this.loadCellItem(compoundTag, stackSize);
+        if (this.tagCompound.hasKey(ITEM_PACKED_TAG)) {
+            needsUpdate = !this.loadPackedCellItems(this.tagCompound.getByteArray(ITEM_PACKED_TAG));
+        } else {
+            final long types = this.getStoredItemTypes();
+            this.persistedSlots = (int) types;
+
+            for (int slot = 0; slot < types; slot++) {
+                NBTTagCompound compoundTag = this.tagCompound.getCompoundTag(ITEM_SLOT_KEYS[slot]);
+                long stackSize = this.tagCompound.getLong(ITEM_SLOT_COUNT_KEYS[slot]);
+                needsUpdate |= !this.loadSlot(compoundTag, stackSize, null);
+                // empty or duplicate entries shift the layout, it has to be written again as a whole.
+                needsUpdate |= this.slotItems.size() != slot + 1;
+            }
         }
 
+        this.dirtyDefinitions = 0;
+        this.dirtyCounts = 0;
+
         if (needsUpdate) {
             this.saveChanges();
         }
     }
 
+    /**
+     * @return false if the data was damaged or some item couldn't be loaded.
+     */
+    private boolean loadPackedCellItems(final byte[] packed) {
+        final PacketBuffer data = new PacketBuffer(Unpooled.wrappedBuffer(packed));
+
+        try {
+            if (data.readVarInt() != PACKED_FORMAT) {
+                AELog.warn("Storage cell uses an unknown packed format, its content can not be loaded.");
+                return false;
+            }
+
+            final int slots = data.readVarInt();
+            final NBTTagCompound[] definitions = new NBTTagCompound[slots];
+            final byte[][] encoded = new byte[slots][];
+
+            for (int x = 0; x < slots; x++) {
+                final int start = data.readerIndex();
+                definitions[x] = data.readCompoundTag();
+                encoded[x] = Arrays.copyOfRange(packed, start, data.readerIndex());
+            }
+
+            boolean loaded = true;
+            for (int x = 0; x < slots; x++) {
+                final long stackSize = data.readVarLong();
+
+                if (definitions[x] == null) {
+                    loaded = false;
+                } else {
+                    loaded &= this.loadSlot(definitions[x], stackSize, encoded[x]);
+                }
+            }
+
+            return loaded;
+        } catch (final IOException | IndexOutOfBoundsException e) {
+            AELog.warn(e, "Storage cell content is damaged, some items could not be loaded.");
+            return false;
+        }
+    }
+
+    private boolean loadSlot(final NBTTagCompound compoundTag, final long stackSize, final byte[] definition) {
+        final T loaded = this.loadCellItem(compoundTag, stackSize);
+
+        if (loaded == null) {
+            return false;
+        }
+
+        final T stored = this.cellItems.findPrecise(loaded);
+        if (stored != null && stored.getStackSize() > 0 && this.slotIndex.getInt(stored) < 0) {
+            this.addSlot(stored);
+            this.packedDefinitions.set(this.slotItems.size() - 1, definition);
+        }
+
+        return true;
+    }
+
     /**
      * Load a single item.
      *
      * @param compoundTag
      * @param stackSize
-     * @return true when successfully loaded
+     * @return the loaded item, null if it could not be loaded
+     */
+    protected abstract T loadCellItem(NBTTagCompound compoundTag, long stackSize);
+
+    /**
+     * Injects the batch with a single save. A simulated batch accounts for the space used by the earlier stacks of the
+     * same batch, so its result matches what injecting the batch would do.
      */
-    protected abstract boolean loadCellItem(NBTTagCompound compoundTag, long stackSize);
+    @Override
+    public IItemList<T> injectItems(final IItemList<T> input, final Actionable type, final IActionSource src) {
+        final IItemList<T> notAdded = this.getChannel().createList();
+        this.beginBatch();
+        try {
+            for (final T stack : input) {
+                if (stack == null || stack.getStackSize() <= 0) {
+                    continue;
+                }
+
+                final T stored = type == Actionable.SIMULATE ? this.getCellItems().findPrecise(stack) : null;
+                final T remainder = this.injectItems(stack.copy(), type, src);
+                notAdded.add(remainder);
+
+                if (type == Actionable.SIMULATE) {
+                    final long added = stack.getStackSize() - (remainder == null ? 0 : remainder.getStackSize());
+                    if (added > 0) {
+                        if (stored == null || stored.getStackSize() <= 0) {
+                            this.simulatedItemTypes++;
+                        }
+                        this.simulatedItemCount += added;
+                    }
+                }
+            }
+        } finally {
+            this.endBatch();
+        }
+        return notAdded;
+    }
+
+    @Override
+    public IItemList<T> extractItems(final IItemList<T> request, final Actionable mode, final IActionSource src) {
+        final IItemList<T> extracted = this.getChannel().createList();
+        this.beginBatch();
+        try {
+            for (final T stack : request) {
+                if (stack != null && stack.getStackSize() > 0) {
+                    extracted.add(this.extractItems(stack.copy(), mode, src));
+                }
+            }
+        } finally {
+            this.endBatch();
+        }
+        return extracted;
+    }
+
+    private void beginBatch() {
+        this.deferSave = true;
+    }
+
+    private void endBatch() {
+        this.deferSave = false;
+        this.simulatedItemTypes = 0;
+        this.simulatedItemCount = 0;
+        if (this.savePending) {
+            this.savePending = false;
+            this.queueSave();
+        }
+    }
 
     @Override
     public IItemList<T> getAvailableItems(final IItemList<T> out) {
@@ -252,12 +594,12 @@ public abstract class AbstractCellInventory<T extends IAEStack<T>> implements IC
 
     @Override
     public long getStoredItemCount() {
-        return this.storedItemCount;
+        return this.storedItemCount + this.simulatedItemCount;
     }
 
     @Override
     public long getStoredItemTypes() {
-        return this.storedItemTypes;
+        return this.storedItemTypes + this.simulatedItemTypes;
     }
 
     @Override
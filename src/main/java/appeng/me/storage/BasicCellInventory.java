@@ -116,6 +116,8 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
 
         final T l = this.getCellItems().findPrecise(input);
         if (l != null) {
+            // an emptied type stays in the list until it is filled again
+            final int newTypes = l.getStackSize() > 0 ? 0 : 1;
             final long remainingItemCount = this.getRemainingItemCount();
             if (remainingItemCount <= 0) {
                 return input;
@@ -126,13 +128,13 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
                 r.setStackSize(r.getStackSize() - remainingItemCount);
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + remainingItemCount);
-                    this.saveChanges();
+                    this.saveChanges(l, newTypes, remainingItemCount);
                 }
                 return r;
             } else {
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + input.getStackSize());
-                    this.saveChanges();
+                    this.saveChanges(l, newTypes, input.getStackSize());
                 }
                 return null;
             }
@@ -151,14 +153,14 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
                         toWrite.setStackSize(remainingItemCount);
 
                         this.cellItems.add(toWrite);
-                        this.saveChanges();
+                        this.saveChanges(toWrite, 1, remainingItemCount);
                     }
                     return toReturn;
                 }
 
                 if (mode == Actionable.MODULATE) {
                     this.cellItems.add(input);
-                    this.saveChanges();
+                    this.saveChanges(input, 1, input.getStackSize());
                 }
 
                 return null;
@@ -185,14 +187,15 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
             if (l.getStackSize() <= size) {
                 Results.setStackSize(l.getStackSize());
                 if (mode == Actionable.MODULATE) {
+                    final long removed = l.getStackSize();
                     l.setStackSize(0);
-                    this.saveChanges();
+                    this.saveChanges(l, removed > 0 ? -1 : 0, -removed);
                 }
             } else {
                 Results.setStackSize(size);
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() - size);
-                    this.saveChanges();
+                    this.saveChanges(l, 0, -size);
                 }
             }
         }
@@ -206,7 +209,7 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
     }
 
     @Override
-    protected boolean loadCellItem(NBTTagCompound compoundTag, long stackSize) {
+    protected T loadCellItem(NBTTagCompound compoundTag, long stackSize) {
         // Now load the item stack
         final T t;
         try {
@@ -214,13 +217,13 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
             if (t == null) {
                 AELog.warn("Removing item " + compoundTag
                         + " from storage cell because the associated item type couldn't be found.");
-                return false;
+                return null;
             }
         } catch (Throwable ex) {
             if (AEConfig.instance().isRemoveCrashingItemsOnLoad()) {
                 AELog.warn(ex,
                         "Removing item " + compoundTag + " from storage cell because loading the ItemStack crashed.");
-                return false;
+                return null;
             }
             throw ex;
         }
@@ -232,6 +235,6 @@ public class BasicCellInventory<T extends IAEStack<T>> extends AbstractCellInven
             this.cellItems.add(t);
         }
 
-        return true;
+        return t;
     }
 }
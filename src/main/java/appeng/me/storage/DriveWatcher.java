@@ -18,7 +18,9 @@
 
 package appeng.me.storage;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import net.minecraft.item.ItemStack;
 
@@ -27,6 +29,7 @@ import appeng.api.networking.security.IActionSource;
 import appeng.api.storage.ICellHandler;
 import appeng.api.storage.ICellInventoryHandler;
 import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
 import appeng.core.features.registries.cell.CreativeCellHandler;
 import appeng.me.GridAccessException;
 import appeng.me.helpers.MachineSource;
@@ -60,22 +63,8 @@ public class DriveWatcher<T extends IAEStack<T>> extends MEInventoryHandler<T> {
         final T remainder = super.injectItems(input, type, src);
 
         if (type == Actionable.MODULATE && (remainder == null || remainder.getStackSize() != size)) {
-            final int newStatus = this.getStatus();
-
-            if (newStatus != this.oldStatus) {
-                this.drive.blinkCell(this.getSlot());
-                this.oldStatus = newStatus;
-            }
-            if (this.drive.getProxy().isActive() && !(handler instanceof CreativeCellHandler)) {
-                try {
-                    this.drive.getProxy().getStorage().postAlterationOfStoredItems(this.getChannel(),
-                            Collections.singletonList(input.copy().setStackSize(
-                                    input.getStackSize() - (remainder == null ? 0 : remainder.getStackSize()))),
-                            this.source);
-                } catch (GridAccessException e) {
-                    e.printStackTrace();
-                }
-            }
+            this.onStoredItemsChanged(Collections.singletonList(input.copy().setStackSize(
+                    input.getStackSize() - (remainder == null ? 0 : remainder.getStackSize()))));
         }
 
         return remainder;
@@ -86,24 +75,74 @@ public class DriveWatcher<T extends IAEStack<T>> extends MEInventoryHandler<T> {
         final T extractable = super.extractItems(request, type, src);
 
         if (type == Actionable.MODULATE && extractable != null) {
-            final int newStatus = this.getStatus();
+            this.onStoredItemsChanged(
+                    Collections.singletonList(request.copy().setStackSize(-extractable.getStackSize())));
+        }
 
-            if (newStatus != this.oldStatus) {
-                this.drive.blinkCell(this.getSlot());
-                this.oldStatus = newStatus;
+        return extractable;
+    }
+
+    @Override
+    public IItemList<T> injectItems(final IItemList<T> input, final Actionable type, final IActionSource src) {
+        final IItemList<T> remainder = super.injectItems(input, type, src);
+
+        if (type == Actionable.MODULATE) {
+            final List<T> changes = new ArrayList<>();
+            for (final T stack : input) {
+                if (stack == null || stack.getStackSize() <= 0) {
+                    continue;
+                }
+                final T notAdded = remainder.findPrecise(stack);
+                final long added = stack.getStackSize() - (notAdded == null ? 0 : notAdded.getStackSize());
+                if (added > 0) {
+                    changes.add(stack.copy().setStackSize(added));
+                }
+            }
+            if (!changes.isEmpty()) {
+                this.onStoredItemsChanged(changes);
             }
-            if (this.drive.getProxy().isActive() && !(handler instanceof CreativeCellHandler)) {
-                try {
-                    this.drive.getProxy().getStorage().postAlterationOfStoredItems(this.getChannel(),
-                            Collections.singletonList(request.copy().setStackSize(-extractable.getStackSize())),
-                            this.source);
-                } catch (GridAccessException e) {
-                    e.printStackTrace();
+        }
+
+        return remainder;
+    }
+
+    @Override
+    public IItemList<T> extractItems(final IItemList<T> request, final Actionable type, final IActionSource src) {
+        final IItemList<T> extracted = super.extractItems(request, type, src);
+
+        if (type == Actionable.MODULATE) {
+            final List<T> changes = new ArrayList<>();
+            for (final T stack : extracted) {
+                if (stack.getStackSize() > 0) {
+                    changes.add(stack.copy().setStackSize(-stack.getStackSize()));
                 }
             }
+            if (!changes.isEmpty()) {
+                this.onStoredItemsChanged(changes);
+            }
         }
 
-        return extractable;
+        return extracted;
+    }
+
+    /**
+     * Updates the drive's cell status and reports the changes to the network, once per operation.
+     */
+    private void onStoredItemsChanged(final List<T> changes) {
+        final int newStatus = this.getStatus();
+
+        if (newStatus != this.oldStatus) {
+            this.drive.blinkCell(this.getSlot());
+            this.oldStatus = newStatus;
+        }
+        if (this.drive.getProxy().isActive() && !(handler instanceof CreativeCellHandler)) {
+            try {
+                this.drive.getProxy().getStorage().postAlterationOfStoredItems(this.getChannel(), changes,
+                        this.source);
+            } catch (GridAccessException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     @Override
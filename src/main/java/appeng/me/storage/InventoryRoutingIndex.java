@@ -0,0 +1,244 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import appeng.api.config.IncludeExclude;
+import appeng.api.storage.IMEInventory;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEFluidStack;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.util.prioritylist.FuzzyPriorityList;
+import appeng.util.prioritylist.IPartitionList;
+import appeng.util.prioritylist.PrecisePriorityList;
+
+/**
+ * Narrows the inventories of a priority map down to the ones that could plausibly accept a given stack.
+ * <p>
+ * Handlers whitelisted through a precise or fuzzy partition list are only listed under the items (or fluids) of their
+ * partition; everything else is listed under every key. The candidates returned are a superset of the handlers that
+ * would pass {@link IMEInventoryHandler#canAccept}, in the original order, so callers still run their usual checks.
+ * <p>
+ * The index is rebuilt lazily after {@link #invalidate()}, which is called when the source map changed and by every
+ * {@link MEInventoryHandler} the index was built from when its partition changes.
+ */
+final class InventoryRoutingIndex<T extends IAEStack<T>> {
+
+    private final NavigableMap<Integer, List<IMEInventoryHandler<T>>> source;
+    private final AtomicInteger revision = new AtomicInteger();
+    private volatile Built<T> built;
+
+    InventoryRoutingIndex(final NavigableMap<Integer, List<IMEInventoryHandler<T>>> source) {
+        this.source = source;
+    }
+
+    void invalidate() {
+        this.revision.incrementAndGet();
+    }
+
+    /**
+     * @return one candidate list per priority, in the same order as the source map
+     */
+    List<Bucket<T>> getBuckets() {
+        Built<T> current = this.built;
+        if (current == null || current.revision != this.revision.get()) {
+            current = this.rebuild();
+        }
+        return current.buckets;
+    }
+
+    private synchronized Built<T> rebuild() {
+        // read before looking at the handlers, so a change during the build is never missed.
+        final int revision = this.revision.get();
+        final Built<T> current = this.built;
+        if (current != null && current.revision == revision) {
+            return current;
+        }
+
+        final List<Bucket<T>> buckets = new ArrayList<>(this.source.size());
+        for (final List<IMEInventoryHandler<T>> invList : this.source.values()) {
+            buckets.add(new Bucket<>(this, invList));
+        }
+
+        final Built<T> rebuilt = new Built<>(buckets, revision);
+        this.built = rebuilt;
+        return rebuilt;
+    }
+
+    static Object getRoutingKey(final IAEStack<?> stack) {
+        if (stack instanceof IAEItemStack) {
+            return ((IAEItemStack) stack).getItem();
+        }
+        if (stack instanceof IAEFluidStack) {
+            return ((IAEFluidStack) stack).getFluid();
+        }
+        return null;
+    }
+
+    /**
+     * Collects the keys a handler is restricted to by the whitelists along its chain of wrapped handlers.
+     *
+     * @return the accepted keys, or null if the handler may accept anything
+     */
+    private static <T extends IAEStack<T>> Set<Object> getAcceptedKeys(final InventoryRoutingIndex<T> index,
+            final IMEInventoryHandler<T> h) {
+        Set<Object> keys = null;
+        IMEInventory<T> current = h;
+
+        while (current instanceof MEInventoryHandler) {
+            final MEInventoryHandler<T> handler = (MEInventoryHandler<T>) current;
+            handler.addRoutingIndex(index);
+
+            final Set<Object> listKeys = getPartitionKeys(handler);
+
+            if (listKeys != null) {
+                if (keys == null) {
+                    keys = listKeys;
+                } else {
+                    keys.retainAll(listKeys);
+                }
+            }
+
+            current = handler.getInternal();
+        }
+
+        return keys;
+    }
+
+    private static <T extends IAEStack<T>> Set<Object> getPartitionKeys(final MEInventoryHandler<T> handler) {
+        final IPartitionList<T> list = handler.getPartitionList();
+        if (handler.getWhitelist() != IncludeExclude.WHITELIST || list.isEmpty()) {
+            return null;
+        }
+        if (!(list instanceof PrecisePriorityList) && !(list instanceof FuzzyPriorityList)) {
+            return null;
+        }
+
+        final Set<Object> keys = new HashSet<>();
+        for (final T stack : list.getItems()) {
+            final Object key = getRoutingKey(stack);
+            if (key == null) {
+                return null;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static final class Built<T extends IAEStack<T>> {
+
+        private final List<Bucket<T>> buckets;
+        private final int revision;
+
+        private Built(final List<Bucket<T>> buckets, final int revision) {
+            this.buckets = buckets;
+            this.revision = revision;
+        }
+    }
+
+    static final class Bucket<T extends IAEStack<T>> {
+
+        private final List<IMEInventoryHandler<T>> all;
+        private final List<IMEInventoryHandler<T>> unrestricted;
+        private final Map<Object, List<IMEInventoryHandler<T>>> routes;
+
+        private Bucket(final InventoryRoutingIndex<T> index, final List<IMEInventoryHandler<T>> invList) {
+            this.all = new ArrayList<>(invList);
+            this.unrestricted = new ArrayList<>();
+
+            final List<Set<Object>> acceptedKeys = new ArrayList<>(invList.size());
+            final Set<Object> allKeys = new HashSet<>();
+            for (final IMEInventoryHandler<T> h : invList) {
+                final Set<Object> keys = getAcceptedKeys(index, h);
+                acceptedKeys.add(keys);
+                if (keys == null) {
+                    this.unrestricted.add(h);
+                } else {
+                    allKeys.addAll(keys);
+                }
+            }
+
+            // Each route keeps the original handler order, interleaving restricted and unrestricted handlers.
+            this.routes = new HashMap<>(allKeys.size());
+            for (final Object key : allKeys) {
+                final List<IMEInventoryHandler<T>> route = new ArrayList<>();
+                for (int x = 0; x < invList.size(); x++) {
+                    final Set<Object> keys = acceptedKeys.get(x);
+                    if (keys == null || keys.contains(key)) {
+                        route.add(invList.get(x));
+                    }
+                }
+                this.routes.put(key, route);
+            }
+        }
+
+        List<IMEInventoryHandler<T>> getCandidates(final Object key) {
+            if (key == null) {
+                return this.all;
+            }
+            return this.routes.getOrDefault(key, this.unrestricted);
+        }
+
+        /**
+         * @return the handlers that could accept any of the stacks, in their original order
+         */
+        List<IMEInventoryHandler<T>> getCandidates(final List<T> stacks) {
+            if (stacks.size() == 1) {
+                return this.getCandidates(getRoutingKey(stacks.get(0)));
+            }
+
+            final Set<Object> keys = new HashSet<>();
+            for (final T stack : stacks) {
+                final Object key = getRoutingKey(stack);
+                if (key == null) {
+                    return this.all;
+                }
+                keys.add(key);
+            }
+
+            final Set<IMEInventoryHandler<T>> wanted = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (final Object key : keys) {
+                wanted.addAll(this.getCandidates(key));
+            }
+
+            if (wanted.size() == this.all.size()) {
+                return this.all;
+            }
+
+            final List<IMEInventoryHandler<T>> candidates = new ArrayList<>(wanted.size());
+            for (final IMEInventoryHandler<T> h : this.all) {
+                if (wanted.contains(h)) {
+                    candidates.add(h);
+                }
+            }
+            return candidates;
+        }
+    }
+}
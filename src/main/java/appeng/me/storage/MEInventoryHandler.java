@@ -18,6 +18,10 @@
 
 package appeng.me.storage;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
 import appeng.api.config.IncludeExclude;
@@ -39,6 +43,9 @@ public class MEInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHa
     private AccessRestriction myAccess;
     private StorageFilter storageFilter;
     private IPartitionList<T> myPartitionList;
+    // the routing indexes built from this handler, told to rebuild whenever the filter changes.
+    private final Set<InventoryRoutingIndex<?>> routingIndexes = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
     private AccessRestriction cachedAccessRestriction;
 
@@ -68,12 +75,27 @@ public class MEInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHa
         this.myPartitionList = new DefaultPriorityList<>();
     }
 
+    void addRoutingIndex(final InventoryRoutingIndex<?> index) {
+        this.routingIndexes.add(index);
+    }
+
+    private void onPartitionChanged() {
+        synchronized (this.routingIndexes) {
+            for (final InventoryRoutingIndex<?> index : this.routingIndexes) {
+                index.invalidate();
+            }
+        }
+    }
+
     IncludeExclude getWhitelist() {
         return this.myWhitelist;
     }
 
     public void setWhitelist(final IncludeExclude myWhitelist) {
-        this.myWhitelist = myWhitelist;
+        if (this.myWhitelist != myWhitelist) {
+            this.myWhitelist = myWhitelist;
+            this.onPartitionChanged();
+        }
     }
 
     public AccessRestriction getBaseAccess() {
@@ -92,7 +114,13 @@ public class MEInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHa
     }
 
     public void setPartitionList(final IPartitionList<T> myPartitionList) {
+        final IPartitionList<T> previous = this.myPartitionList;
         this.myPartitionList = myPartitionList;
+
+        // swapping one empty list for another doesn't restrict anything, e.g. for unconfigured cells.
+        if (previous != myPartitionList && !(previous.isEmpty() && myPartitionList.isEmpty())) {
+            this.onPartitionChanged();
+        }
     }
 
     @Override
@@ -113,6 +141,43 @@ public class MEInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHa
         return this.internal.extractItems(request, type, src);
     }
 
+    @Override
+    public IItemList<T> injectItems(final IItemList<T> input, final Actionable type, final IActionSource src) {
+        final IItemList<T> accepted = this.getChannel().createList();
+        final IItemList<T> rejected = this.getChannel().createList();
+        for (final T stack : input) {
+            if (stack != null && stack.getStackSize() > 0) {
+                if (this.canAccept(stack)) {
+                    accepted.add(stack);
+                } else {
+                    rejected.add(stack);
+                }
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            for (final T remainder : this.internal.injectItems(accepted, type, src)) {
+                rejected.add(remainder);
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public IItemList<T> extractItems(final IItemList<T> request, final Actionable type, final IActionSource src) {
+        final IItemList<T> allowed = this.getChannel().createList();
+        for (final T stack : request) {
+            if (stack != null && stack.getStackSize() > 0 && this.canExtract(stack)) {
+                allowed.add(stack);
+            }
+        }
+
+        if (allowed.isEmpty()) {
+            return allowed;
+        }
+        return this.internal.extractItems(allowed, type, src);
+    }
+
     @Override
     public IItemList<T> getAvailableItems(final IItemList<T> out) {
         if (this.gettingAvailableContent || !this.hasReadAccess) {
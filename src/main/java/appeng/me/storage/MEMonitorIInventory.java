@@ -23,6 +23,9 @@ import java.util.Map.Entry;
 
 import net.minecraft.item.ItemStack;
 
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+
 import appeng.api.AEApi;
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
@@ -37,6 +40,7 @@ import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
 import appeng.util.InventoryAdaptor;
 import appeng.util.inv.ItemSlot;
+import appeng.util.inv.SlotScanner;
 
 public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMonitor {
 
@@ -44,6 +48,12 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
     private IItemList<IAEItemStack> cache = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class)
             .createList();
 
+    // what was counted for each slot when it was last read, null for empty or excluded slots.
+    private IAEItemStack[] slotStacks;
+    private final Map<IAEItemStack, IntSortedSet> slotsByItem = new HashMap<>();
+    private final IntSortedSet emptySlots = new IntRBTreeSet();
+    private final SlotScanner scanner = new SlotScanner();
+
     private final HashMap<IMEMonitorHandlerReceiver<IAEItemStack>, Object> listeners = new HashMap<>();
     private IActionSource mySource;
     private StorageFilter mode = StorageFilter.EXTRACTABLE_ONLY;
@@ -73,6 +83,9 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
         }
 
         if (out.isEmpty()) {
+            if (type == Actionable.MODULATE) {
+                this.onSlotsChanged(input, input.getStackSize(), true);
+            }
             return null;
         }
 
@@ -81,10 +94,7 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
         o.setStackSize(out.getCount());
 
         if (type == Actionable.MODULATE) {
-            IAEItemStack added = o.copy();
-            this.cache.add(added);
-            this.postDifference(Collections.singletonList(added));
-            this.onTick();
+            this.onSlotsChanged(input, input.getStackSize() - o.getStackSize(), true);
         }
 
         return o;
@@ -109,12 +119,7 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
         o.setStackSize(out.getCount());
 
         if (type == Actionable.MODULATE) {
-            IAEItemStack cachedStack = this.cache.findPrecise(request);
-            if (cachedStack != null) {
-                cachedStack.decStackSize(o.getStackSize());
-                this.postDifference(Collections.singletonList(o.copy().setStackSize(-o.getStackSize())));
-            }
-            this.onTick();
+            this.onSlotsChanged(request, o.getStackSize(), false);
         }
 
         return o;
@@ -127,6 +132,188 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
 
     @Override
     public TickRateModulation onTick() {
+        if (this.adaptor.getSlotCount() < 0) {
+            return this.scanAll();
+        }
+
+        final IItemList<IAEItemStack> changes = this.createList();
+
+        if (!this.rebuildIfResized(changes)) {
+            this.scanner.scan(this.slotStacks.length, slot -> this.refreshSlot(slot, null, changes));
+        }
+
+        if (!changes.isEmpty()) {
+            this.postDifference(changes);
+            return TickRateModulation.URGENT;
+        }
+
+        return this.scanner.getIdleRate();
+    }
+
+    /**
+     * Re-reads the slots an operation of ours could have touched, the slots holding the item and for insertions also
+     * the empty ones, until the expected amount is accounted for. Falls back to reading everything if it never is.
+     */
+    private void onSlotsChanged(final IAEItemStack item, final long amount, final boolean inserted) {
+        if (amount <= 0) {
+            return;
+        }
+        if (this.adaptor.getSlotCount() < 0) {
+            this.scanAll();
+            return;
+        }
+
+        final IItemList<IAEItemStack> changes = this.createList();
+        if (!this.rebuildIfResized(changes)) {
+            long seen = this.refreshSlots(this.slotsByItem.get(item), item, amount, changes);
+            if (inserted && seen < amount) {
+                seen += this.refreshSlots(this.emptySlots, item, amount - seen, changes);
+            }
+            if (seen < amount) {
+                this.rebuild(changes);
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            this.postDifference(changes);
+        }
+    }
+
+    private long refreshSlots(final IntSortedSet slots, final IAEItemStack item, final long amount,
+            final IItemList<IAEItemStack> changes) {
+        long seen = 0;
+        int next = 0;
+
+        // the set changes as slots are refreshed, so walk it by position rather than with an iterator.
+        while (slots != null && seen < amount) {
+            final IntSortedSet remaining = slots.tailSet(next);
+            if (remaining.isEmpty()) {
+                break;
+            }
+
+            final int slot = remaining.firstInt();
+            seen += Math.abs(this.refreshSlot(slot, item, changes));
+            next = slot + 1;
+        }
+
+        return seen;
+    }
+
+    /**
+     * Reads a slot again and records the difference to its last read.
+     *
+     * @return how much the amount of the given item in this slot changed
+     */
+    private long refreshSlot(final int slot, final IAEItemStack item, final IItemList<IAEItemStack> changes) {
+        final IAEItemStack old = this.slotStacks[slot];
+        final IAEItemStack now = this.readSlot(slot);
+
+        if (old == now || old != null && now != null && old.equals(now)
+                && old.getStackSize() == now.getStackSize()) {
+            return 0;
+        }
+
+        this.unindexSlot(slot);
+        this.indexSlot(slot, now);
+
+        long delta = 0;
+        if (old != null) {
+            final IAEItemStack cached = this.cache.findPrecise(old);
+            if (cached != null) {
+                cached.decStackSize(old.getStackSize());
+            }
+            changes.add(old.copy().setStackSize(-old.getStackSize()));
+            if (item != null && old.equals(item)) {
+                delta -= old.getStackSize();
+            }
+        }
+        if (now != null) {
+            this.cache.add(now);
+            changes.add(now);
+            if (item != null && now.equals(item)) {
+                delta += now.getStackSize();
+            }
+        }
+        return delta;
+    }
+
+    private boolean rebuildIfResized(final IItemList<IAEItemStack> changes) {
+        if (this.slotStacks != null && this.slotStacks.length == this.adaptor.getSlotCount()) {
+            return false;
+        }
+
+        this.rebuild(changes);
+        return true;
+    }
+
+    /**
+     * Reads every slot from scratch, recording the difference to the previous contents.
+     */
+    private void rebuild(final IItemList<IAEItemStack> changes) {
+        final int size = this.adaptor.getSlotCount();
+        final IItemList<IAEItemStack> currentlyOnStorage = this.createList();
+
+        this.slotStacks = new IAEItemStack[size];
+        this.slotsByItem.clear();
+        this.emptySlots.clear();
+        this.scanner.reset();
+
+        for (int x = 0; x < size; x++) {
+            final IAEItemStack stack = this.readSlot(x);
+            this.indexSlot(x, stack);
+            currentlyOnStorage.add(stack);
+        }
+
+        for (final IAEItemStack is : this.cache) {
+            changes.add(is.copy().setStackSize(-is.getStackSize()));
+        }
+        for (final IAEItemStack is : currentlyOnStorage) {
+            changes.add(is);
+        }
+
+        this.cache = currentlyOnStorage;
+    }
+
+    private IAEItemStack readSlot(final int slot) {
+        final ItemSlot is = this.adaptor.getSlot(slot);
+        if (this.mode == StorageFilter.EXTRACTABLE_ONLY && !is.isExtractable()) {
+            return null;
+        }
+        return is.getAEItemStack();
+    }
+
+    private void indexSlot(final int slot, final IAEItemStack stack) {
+        this.slotStacks[slot] = stack;
+        if (stack == null) {
+            this.emptySlots.add(slot);
+        } else {
+            this.slotsByItem.computeIfAbsent(stack, k -> new IntRBTreeSet()).add(slot);
+        }
+    }
+
+    private void unindexSlot(final int slot) {
+        final IAEItemStack stack = this.slotStacks[slot];
+        if (stack == null) {
+            this.emptySlots.remove(slot);
+        } else {
+            final IntSortedSet slots = this.slotsByItem.get(stack);
+            if (slots != null) {
+                slots.remove(slot);
+                if (slots.isEmpty()) {
+                    this.slotsByItem.remove(stack);
+                }
+            }
+        }
+    }
+
+    private IItemList<IAEItemStack> createList() {
+        return AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+    }
+
+    /**
+     * Reads the whole inventory, for adaptors that can not read single slots.
+     */
+    private TickRateModulation scanAll() {
         boolean changed = false;
 
         final List<IAEItemStack> changes = new ArrayList<>();
@@ -231,6 +418,8 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>, ITickingMo
 
     public void setMode(final StorageFilter mode) {
         this.mode = mode;
+        // slots are included by a different rule now, so read them all again on the next tick.
+        this.slotStacks = null;
     }
 
     private IActionSource getActionSource() {
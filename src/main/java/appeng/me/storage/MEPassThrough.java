@@ -55,6 +55,16 @@ public class MEPassThrough<T extends IAEStack<T>> implements IMEInventoryHandler
         return this.internal.extractItems(request, type, src);
     }
 
+    @Override
+    public IItemList<T> injectItems(final IItemList<T> input, final Actionable type, final IActionSource src) {
+        return this.internal.injectItems(input, type, src);
+    }
+
+    @Override
+    public IItemList<T> extractItems(final IItemList<T> request, final Actionable type, final IActionSource src) {
+        return this.internal.extractItems(request, type, src);
+    }
+
     @Override
     public IItemList<T> getAvailableItems(final IItemList out) {
         return this.internal.getAvailableItems(out);
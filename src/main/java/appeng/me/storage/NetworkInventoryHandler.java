@@ -19,6 +19,7 @@
 package appeng.me.storage;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
@@ -33,11 +34,11 @@ import appeng.api.storage.IStorageChannel;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
 import appeng.me.cache.SecurityCache;
+import appeng.util.IdentityStack;
 
 public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHandler<T> {
 
-    private static final ThreadLocal<Deque> DEPTH_MOD = new ThreadLocal<>();
-    private static final ThreadLocal<Deque> DEPTH_SIM = new ThreadLocal<>();
+    private static final ThreadLocal<DepthFrame> DEPTH = ThreadLocal.withInitial(DepthFrame::new);
     private static final Comparator<Integer> PRIORITY_SORTER = (o1, o2) -> Integer.compare(o2, o1);
 
     private static int currentPass = 0;
@@ -46,6 +47,8 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
     private final NavigableMap<Integer, List<IMEInventoryHandler<T>>> craftingPriorityInventory;
     private final NavigableMap<Integer, List<IMEInventoryHandler<T>>> priorityInventory;
     private final NavigableMap<Integer, List<IMEInventoryHandler<T>>> stickyPriorityInventory;
+    private final InventoryRoutingIndex<T> priorityRoutes;
+    private final InventoryRoutingIndex<T> stickyPriorityRoutes;
     private int myPass = 0;
 
     public NetworkInventoryHandler(final IStorageChannel<T> chan, final SecurityCache security) {
@@ -54,6 +57,8 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         this.priorityInventory = new TreeMap<>(PRIORITY_SORTER);
         this.stickyPriorityInventory = new TreeMap<>(PRIORITY_SORTER);
         this.craftingPriorityInventory = new TreeMap<>(PRIORITY_SORTER);
+        this.priorityRoutes = new InventoryRoutingIndex<>(this.priorityInventory);
+        this.stickyPriorityRoutes = new InventoryRoutingIndex<>(this.stickyPriorityInventory);
     }
 
     public void addNewStorage(final IMEInventoryHandler<T> h) {
@@ -69,6 +74,8 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         }
 
         list.computeIfAbsent(priority, $ -> new ArrayList<>()).add(h);
+        this.priorityRoutes.invalidate();
+        this.stickyPriorityRoutes.invalidate();
     }
 
     @Override
@@ -101,11 +108,14 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
             return input;
         }
 
+        // Partitioned inventories are only visited for the items they are partitioned to.
+        final Object routingKey = InventoryRoutingIndex.getRoutingKey(input);
+
         boolean stickyInventoryFound = false;
         // For this pass we do return input if the item is able to go into a sticky inventory. We NEVER want to try and
         // insert the item into a non-sticky inventory if it could already go into a sticky inventory.
-        for (final List<IMEInventoryHandler<T>> stickyInvList : this.stickyPriorityInventory.values()) {
-            Iterator<IMEInventoryHandler<T>> ii = stickyInvList.iterator();
+        for (final InventoryRoutingIndex.Bucket<T> bucket : this.stickyPriorityRoutes.getBuckets()) {
+            Iterator<IMEInventoryHandler<T>> ii = bucket.getCandidates(routingKey).iterator();
             while (ii.hasNext() && input != null) {
                 final IMEInventoryHandler<T> inv = ii.next();
                 if (inv.validForPass(1) && inv.canAccept(input)
@@ -121,7 +131,8 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
             return input;
         }
 
-        for (final List<IMEInventoryHandler<T>> invList : this.priorityInventory.values()) {
+        for (final InventoryRoutingIndex.Bucket<T> bucket : this.priorityRoutes.getBuckets()) {
+            final List<IMEInventoryHandler<T>> invList = bucket.getCandidates(routingKey);
             Iterator<IMEInventoryHandler<T>> ii = invList.iterator();
             while (ii.hasNext() && input != null) {
                 final IMEInventoryHandler<T> inv = ii.next();
@@ -151,8 +162,146 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         return input;
     }
 
+    /**
+     * Routes a whole batch through the same passes as {@link #injectItems(IAEStack, Actionable, IActionSource)}, but
+     * offers each inventory all the stacks it could take in a single call.
+     */
+    @Override
+    public IItemList<T> injectItems(final IItemList<T> input, final Actionable type, final IActionSource src) {
+        final IItemList<T> notAdded = this.myChannel.createList();
+
+        List<T> pending = new ArrayList<>();
+        for (final T stack : input) {
+            if (stack != null && stack.getStackSize() > 0) {
+                pending.add(stack.copy());
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return notAdded;
+        }
+
+        if (this.diveList(this, type)) {
+            pending.forEach(notAdded::add);
+            return notAdded;
+        }
+
+        if (this.testPermission(src, SecurityPermissions.INJECT)) {
+            this.surface(this, type);
+            pending.forEach(notAdded::add);
+            return notAdded;
+        }
+
+        for (final List<IMEInventoryHandler<T>> invList : this.craftingPriorityInventory.values()) {
+            for (final IMEInventoryHandler<T> inv : invList) {
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending = offer(inv, pending, stack -> inv.canAccept(stack)
+                        && (inv.isPrioritized(stack) || inv.extractItems(stack, Actionable.SIMULATE, src) != null),
+                        null, type, src);
+            }
+        }
+
+        // Stacks that matched a sticky inventory never go anywhere else, just like single injections.
+        final IItemList<T> stuck = this.myChannel.createList();
+        for (final InventoryRoutingIndex.Bucket<T> bucket : this.stickyPriorityRoutes.getBuckets()) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            for (final IMEInventoryHandler<T> inv : bucket.getCandidates(pending)) {
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending = offer(inv, pending, stack -> inv.validForPass(1) && inv.canAccept(stack)
+                        && (inv.isPrioritized(stack) || inv.extractItems(stack, Actionable.SIMULATE, src) != null),
+                        stuck, type, src);
+            }
+        }
+
+        if (!stuck.isEmpty()) {
+            final List<T> unstuck = new ArrayList<>(pending.size());
+            for (final T stack : pending) {
+                if (stuck.findPrecise(stack) != null) {
+                    notAdded.add(stack);
+                } else {
+                    unstuck.add(stack);
+                }
+            }
+            pending = unstuck;
+        }
+
+        for (final InventoryRoutingIndex.Bucket<T> bucket : this.priorityRoutes.getBuckets()) {
+            if (pending.isEmpty()) {
+                break;
+            }
+
+            final List<IMEInventoryHandler<T>> invList = bucket.getCandidates(pending);
+            for (final IMEInventoryHandler<T> inv : invList) {
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending = offer(inv, pending, stack -> inv.validForPass(1) && inv.canAccept(stack)
+                        && (inv.isPrioritized(stack) || inv.extractItems(stack, Actionable.SIMULATE, src) != null),
+                        null, type, src);
+            }
+
+            for (final IMEInventoryHandler<T> inv : invList) {
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending = offer(inv, pending,
+                        stack -> inv.validForPass(2) && inv.canAccept(stack) && !inv.isPrioritized(stack), null, type,
+                        src);
+            }
+        }
+
+        this.surface(this, type);
+
+        pending.forEach(notAdded::add);
+        return notAdded;
+    }
+
+    /**
+     * Offers the pending stacks that pass the filter to one inventory in a single call.
+     *
+     * @param matched collects the stacks that passed the filter, can be null
+     *
+     * @return the stacks still pending, the ones that did not pass and whatever the inventory did not take
+     */
+    private List<T> offer(final IMEInventoryHandler<T> inv, final List<T> pending, final Predicate<T> filter,
+            final IItemList<T> matched, final Actionable type, final IActionSource src) {
+        IItemList<T> batch = null;
+        final List<T> next = new ArrayList<>(pending.size());
+
+        for (final T stack : pending) {
+            if (filter.test(stack)) {
+                if (batch == null) {
+                    batch = this.myChannel.createList();
+                }
+                batch.add(stack);
+                if (matched != null) {
+                    matched.add(stack);
+                }
+            } else {
+                next.add(stack);
+            }
+        }
+
+        if (batch == null) {
+            return pending;
+        }
+
+        for (final T remainder : inv.injectItems(batch, type, src)) {
+            if (remainder.getStackSize() > 0) {
+                next.add(remainder);
+            }
+        }
+        return next;
+    }
+
     private boolean diveList(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
-        final Deque cDepth = this.getDepth(type);
+        final IdentityStack cDepth = this.getDepth(type);
         if (cDepth.contains(networkInventoryHandler)) {
             return true;
         }
@@ -191,16 +340,9 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         }
     }
 
-    private Deque getDepth(final Actionable type) {
-        final ThreadLocal<Deque> depth = type == Actionable.MODULATE ? DEPTH_MOD : DEPTH_SIM;
-
-        Deque s = depth.get();
-
-        if (s == null) {
-            depth.set(s = new ArrayDeque<>());
-        }
-
-        return s;
+    private IdentityStack getDepth(final Actionable type) {
+        final DepthFrame frame = DEPTH.get();
+        return type == Actionable.MODULATE ? frame.modulate : frame.simulate;
     }
 
     @Override
@@ -252,6 +394,73 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         return output;
     }
 
+    @Override
+    public IItemList<T> extractItems(final IItemList<T> request, final Actionable mode, final IActionSource src) {
+        final IItemList<T> output = this.myChannel.createList();
+
+        List<T> pending = new ArrayList<>();
+        for (final T stack : request) {
+            if (stack != null && stack.getStackSize() > 0) {
+                pending.add(stack.copy());
+            }
+        }
+
+        if (pending.isEmpty() || this.diveList(this, mode)) {
+            return output;
+        }
+
+        if (this.testPermission(src, SecurityPermissions.EXTRACT)) {
+            this.surface(this, mode);
+            return output;
+        }
+
+        for (final List<IMEInventoryHandler<T>> invList : this.priorityInventory.descendingMap().values()) {
+            for (final IMEInventoryHandler<T> inv : invList) {
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending = this.extractFrom(inv, pending, output, mode, src);
+            }
+        }
+
+        for (final List<IMEInventoryHandler<T>> invList : this.stickyPriorityInventory.descendingMap().values()) {
+            for (final IMEInventoryHandler<T> inv : invList) {
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending = this.extractFrom(inv, pending, output, mode, src);
+            }
+        }
+
+        this.surface(this, mode);
+
+        return output;
+    }
+
+    private List<T> extractFrom(final IMEInventoryHandler<T> inv, final List<T> pending, final IItemList<T> output,
+            final Actionable mode, final IActionSource src) {
+        final IItemList<T> batch = this.myChannel.createList();
+        pending.forEach(batch::add);
+
+        final IItemList<T> extracted = inv.extractItems(batch, mode, src);
+        if (extracted.isEmpty()) {
+            return pending;
+        }
+
+        final List<T> next = new ArrayList<>(pending.size());
+        for (final T stack : pending) {
+            final T got = extracted.findPrecise(stack);
+            if (got != null && got.getStackSize() > 0) {
+                output.add(got);
+                stack.decStackSize(got.getStackSize());
+            }
+            if (stack.getStackSize() > 0) {
+                next.add(stack);
+            }
+        }
+        return next;
+    }
+
     @Override
     public IItemList<T> getAvailableItems(IItemList<T> out) {
         if (this.diveIteration(this, Actionable.SIMULATE)) {
@@ -276,7 +485,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
     }
 
     private boolean diveIteration(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
-        final Deque cDepth = this.getDepth(type);
+        final IdentityStack cDepth = this.getDepth(type);
         if (cDepth.isEmpty()) {
             currentPass++;
             this.myPass = currentPass;
@@ -326,4 +535,12 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
     public boolean validForPass(final int i) {
         return true;
     }
+
+    /**
+     * The handlers currently being visited on one thread, reused across calls so tracking them does not allocate.
+     */
+    private static final class DepthFrame {
+        private final IdentityStack modulate = new IdentityStack(16);
+        private final IdentityStack simulate = new IdentityStack(16);
+    }
 }
@@ -22,6 +22,7 @@ import java.util.*;
 
 import com.google.common.primitives.Ints;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.IItemHandler;
 
@@ -45,8 +46,7 @@ import appeng.core.AELog;
 import appeng.me.GridAccessException;
 import appeng.me.helpers.IGridProxyable;
 import appeng.me.storage.ITickingMonitor;
-import appeng.util.inv.ItemHandlerIterator;
-import appeng.util.inv.ItemSlot;
+import appeng.util.inv.SlotScanner;
 import appeng.util.item.AEItemStack;
 
 /**
@@ -82,7 +82,11 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
 
         int slotCount = this.itemHandler.getSlots();
         for (int i = 0; i < slotCount && !remaining.isEmpty(); i++) {
+            final int before = remaining.getCount();
             remaining = this.itemHandler.insertItem(i, remaining, type == Actionable.SIMULATE);
+            if (type == Actionable.MODULATE && remaining.getCount() != before) {
+                this.cache.touch(i);
+            }
         }
 
         // Store the stack in the cache for next time.
@@ -101,9 +105,7 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
         }
 
         if (type == Actionable.MODULATE) {
-            IAEItemStack added = iox.copy().setStackSize(iox.getStackSize() - remaining.getCount());
-            this.cache.currentlyCached.add(added);
-            this.postDifference(Collections.singletonList(added));
+            this.postTouchedChanges();
             try {
                 this.proxyable.getProxy().getTick().alertDevice(this.proxyable.getProxy().getNode());
             } catch (GridAccessException ex) {
@@ -164,6 +166,10 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
                         extracted.setCount(remainingCurrentSlot);
                     }
 
+                    if (!simulate) {
+                        this.cache.touch(i);
+                    }
+
                     if (gathered.isEmpty()) {
                         gathered = extracted;
                     } else {
@@ -182,12 +188,7 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
         if (!gathered.isEmpty()) {
             IAEItemStack gatheredAEItemStack = AEItemStack.fromItemStack(gathered);
             if (mode == Actionable.MODULATE) {
-                IAEItemStack cachedStack = this.cache.currentlyCached.findPrecise(request);
-                if (cachedStack != null) {
-                    cachedStack.decStackSize(gatheredAEItemStack.getStackSize());
-                    this.postDifference(Collections.singletonList(
-                            gatheredAEItemStack.copy().setStackSize(-gatheredAEItemStack.getStackSize())));
-                }
+                this.postTouchedChanges();
                 try {
                     this.proxyable.getProxy().getTick().alertDevice(this.proxyable.getProxy().getNode());
                 } catch (GridAccessException ex) {
@@ -208,7 +209,17 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
             this.postDifference(changes);
             return TickRateModulation.URGENT;
         } else {
-            return TickRateModulation.SLOWER;
+            return this.cache.getIdleRate();
+        }
+    }
+
+    /**
+     * Reads back the slots our own insertion or extraction changed, so the cache is exact right away.
+     */
+    private void postTouchedChanges() {
+        final List<IAEItemStack> changes = this.cache.updateTouched();
+        if (!changes.isEmpty()) {
+            this.postDifference(changes);
         }
     }
 
@@ -251,12 +262,27 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
         }
     }
 
-    private static class InventoryCache implements Iterable<ItemSlot> {
+    /**
+     * Remembers a fingerprint of every slot (item, meta, NBT hash and count) so a scan only has to build stacks for
+     * slots that actually changed. Each update checks the slots touched by our own operations plus a window of the
+     * configured size, moving round-robin over the inventory. Whether a slot is extractable is only checked again when
+     * its fingerprint changes.
+     */
+    private static class InventoryCache {
         private final IItemHandler itemHandler;
         private final StorageFilter mode;
         IItemList<IAEItemStack> currentlyCached = AEApi.instance().storage()
                 .getStorageChannel(IItemStorageChannel.class).createList();
 
+        private Item[] items = new Item[0];
+        private int[] metas = new int[0];
+        private int[] nbtHashes = new int[0];
+        private int[] counts = new int[0];
+        // what was counted for each slot, null for empty or excluded slots.
+        private IAEItemStack[] stacks = new IAEItemStack[0];
+        private final BitSet touched = new BitSet();
+        private final SlotScanner scanner = new SlotScanner();
+
         public InventoryCache(IItemHandler itemHandler, StorageFilter mode) {
             this.mode = mode;
             this.itemHandler = itemHandler;
@@ -271,42 +297,110 @@ class ItemHandlerAdapter implements IMEInventory<IAEItemStack>, IBaseMonitor<IAE
             return this.mode;
         }
 
+        TickRateModulation getIdleRate() {
+            return this.scanner.getIdleRate();
+        }
+
+        void touch(final int slot) {
+            this.touched.set(slot);
+        }
+
         public List<IAEItemStack> update() {
             final List<IAEItemStack> changes = new ArrayList<>();
+            final int size = this.itemHandler.getSlots();
 
-            IItemList<IAEItemStack> currentlyOnStorage = AEApi.instance().storage()
-                    .getStorageChannel(IItemStorageChannel.class).createList();
-
-            for (final ItemSlot is : this) {
-                if (this.mode == StorageFilter.EXTRACTABLE_ONLY && !is.isExtractable()) {
-                    continue;
+            if (size != this.stacks.length) {
+                this.resize(size, changes);
+                this.touched.clear();
+                for (int slot = 0; slot < size; slot++) {
+                    this.updateSlot(slot, changes);
                 }
-                currentlyOnStorage.add(is.getAEItemStack());
+                return changes;
+            }
+
+            this.updateTouched(changes);
+
+            this.scanner.scan(size, slot -> this.updateSlot(slot, changes));
+
+            return changes;
+        }
+
+        public List<IAEItemStack> updateTouched() {
+            final List<IAEItemStack> changes = new ArrayList<>();
+            if (this.itemHandler.getSlots() != this.stacks.length) {
+                // the next full update sorts this out
+                return changes;
             }
 
-            for (final IAEItemStack is : currentlyCached) {
-                is.setStackSize(-is.getStackSize());
+            this.updateTouched(changes);
+            return changes;
+        }
+
+        private void updateTouched(final List<IAEItemStack> changes) {
+            for (int slot = this.touched.nextSetBit(0); slot >= 0
+                    && slot < this.stacks.length; slot = this.touched.nextSetBit(slot + 1)) {
+                this.updateSlot(slot, changes);
             }
+            this.touched.clear();
+        }
+
+        private void updateSlot(final int slot, final List<IAEItemStack> changes) {
+            final ItemStack is = this.itemHandler.getStackInSlot(slot);
+            final Item item = is.isEmpty() ? null : is.getItem();
+            final int meta = item == null ? 0 : is.getItemDamage();
+            final int nbtHash = item == null || !is.hasTagCompound() ? 0 : is.getTagCompound().hashCode();
+            final int count = item == null ? 0 : is.getCount();
 
-            for (final IAEItemStack is : currentlyOnStorage) {
-                currentlyCached.add(is);
+            if (this.items[slot] == item && this.metas[slot] == meta && this.nbtHashes[slot] == nbtHash
+                    && this.counts[slot] == count) {
+                return;
             }
 
-            for (final IAEItemStack is : currentlyCached) {
-                if (is.getStackSize() != 0) {
-                    changes.add(is);
-                }
+            this.items[slot] = item;
+            this.metas[slot] = meta;
+            this.nbtHashes[slot] = nbtHash;
+            this.counts[slot] = count;
+
+            IAEItemStack counted = null;
+            if (item != null && (this.mode != StorageFilter.EXTRACTABLE_ONLY
+                    || !this.itemHandler.extractItem(slot, Integer.MAX_VALUE, true).isEmpty())) {
+                counted = AEItemStack.fromItemStack(is);
             }
 
-            currentlyCached = currentlyOnStorage;
+            final IAEItemStack old = this.stacks[slot];
+            this.stacks[slot] = counted;
 
-            return changes;
+            if (old != null) {
+                final IAEItemStack cached = this.currentlyCached.findPrecise(old);
+                if (cached != null) {
+                    cached.decStackSize(old.getStackSize());
+                }
+                changes.add(old.copy().setStackSize(-old.getStackSize()));
+            }
+            if (counted != null) {
+                this.currentlyCached.add(counted);
+                changes.add(counted.copy());
+            }
         }
 
-        @Override
-        public Iterator<ItemSlot> iterator() {
-            return new ItemHandlerIterator(this.itemHandler);
-        }
+        private void resize(final int size, final List<IAEItemStack> changes) {
+            for (int slot = size; slot < this.stacks.length; slot++) {
+                final IAEItemStack old = this.stacks[slot];
+                if (old != null) {
+                    final IAEItemStack cached = this.currentlyCached.findPrecise(old);
+                    if (cached != null) {
+                        cached.decStackSize(old.getStackSize());
+                    }
+                    changes.add(old.copy().setStackSize(-old.getStackSize()));
+                }
+            }
 
+            this.items = Arrays.copyOf(this.items, size);
+            this.metas = Arrays.copyOf(this.metas, size);
+            this.nbtHashes = Arrays.copyOf(this.nbtHashes, size);
+            this.counts = Arrays.copyOf(this.counts, size);
+            this.stacks = Arrays.copyOf(this.stacks, size);
+            this.scanner.reset();
+        }
     }
 }
@@ -20,10 +20,12 @@ package appeng.server;
 
 import appeng.server.subcommands.ChunkLogger;
 import appeng.server.subcommands.SetChannelMode;
+import appeng.server.subcommands.Statistics;
 import appeng.server.subcommands.Supporters;
 
 public enum Commands {
-    channels(4, new SetChannelMode()), Chunklogger(4, new ChunkLogger()), Supporters(0, new Supporters());
+    channels(4, new SetChannelMode()), Chunklogger(4, new ChunkLogger()), Supporters(0, new Supporters()),
+    stats(4, new Statistics());
 
     public final int level;
     public final ISubCommand command;
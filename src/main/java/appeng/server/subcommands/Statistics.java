@@ -0,0 +1,45 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.subcommands;
+
+import java.util.Locale;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+
+import appeng.server.ISubCommand;
+import appeng.util.item.AEItemStackRegistry;
+
+public class Statistics implements ISubCommand {
+
+    @Override
+    public String getHelp(final MinecraftServer srv) {
+        return "commands.ae2.Statistics";
+    }
+
+    @Override
+    public void call(final MinecraftServer srv, final String[] data, final ICommandSender sender) {
+        final AEItemStackRegistry.Statistics registry = AEItemStackRegistry.getStatistics();
+        sender.sendMessage(new TextComponentString(String.format(Locale.ROOT,
+                "Item registry: %d stacks, %d lookups, %.1f%% hits, %d contended, %d expunged",
+                registry.size(), registry.lookups(), registry.hitRate() * 100, registry.contended(),
+                registry.expunged())));
+    }
+}
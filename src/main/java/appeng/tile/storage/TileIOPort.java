@@ -387,51 +387,87 @@ public class TileIOPort extends AENetworkInvTile implements IUpgradeableHost, IC
 
         itemsToMove *= chan.transferFactor();
 
-        boolean didStuff;
+        // find out how much of everything the destination would take with a single batch.
+        final IItemList<IAEStack> offered = chan.createList();
+        for (final IAEStack s : myList) {
+            if (s.getStackSize() > 0) {
+                offered.add(s.copy().setCraftable(false));
+            }
+        }
 
-        do {
-            didStuff = false;
+        if (offered.isEmpty()) {
+            return itemsToMove / chan.transferFactor();
+        }
 
-            for (final IAEStack s : myList) {
-                final long totalStackSize = s.getStackSize();
-                if (totalStackSize > 0) {
-                    final IAEStack stack = destination.injectItems(s, Actionable.SIMULATE, this.mySrc);
+        final IItemList<IAEStack> rejected = destination.injectItems(offered, Actionable.SIMULATE, this.mySrc);
 
-                    long possible = 0;
-                    if (stack == null) {
-                        possible = totalStackSize;
-                    } else {
-                        possible = totalStackSize - stack.getStackSize();
-                    }
+        final IItemList<IAEStack> request = chan.createList();
+        long budget = itemsToMove;
+        for (final IAEStack s : offered) {
+            if (budget <= 0) {
+                break;
+            }
 
-                    if (possible > 0) {
-                        IAEStack injectable = s.copy();
+            final IAEStack notAccepted = rejected.findPrecise(s);
+            final long possible = Math.min(budget,
+                    s.getStackSize() - (notAccepted == null ? 0 : notAccepted.getStackSize()));
+            if (possible > 0) {
+                request.add(s.copy().setStackSize(possible));
+                budget -= possible;
+            }
+        }
 
-                        possible = Math.min(possible, itemsToMove);
-                        injectable.setStackSize(possible);
+        if (request.isEmpty()) {
+            return itemsToMove / chan.transferFactor();
+        }
 
-                        final IAEStack extracted = src.extractItems(injectable, Actionable.MODULATE, this.mySrc);
-                        if (extracted != null) {
-                            possible = extracted.getStackSize();
-                            extracted.setCraftable(false);
-                            final IAEStack failed = Platform.poweredInsert(energy, destination, extracted, this.mySrc);
+        final IItemList<IAEStack> extracted = src.extractItems(request, Actionable.MODULATE, this.mySrc);
 
-                            if (failed != null) {
-                                possible -= failed.getStackSize();
-                                src.injectItems(failed, Actionable.MODULATE, this.mySrc);
-                            }
+        long extractedCount = 0;
+        for (final IAEStack s : extracted) {
+            extractedCount += s.getStackSize();
+        }
 
-                            if (possible > 0) {
-                                itemsToMove -= possible;
-                                didStuff = true;
-                            }
+        // pay for what actually arrives in one go, whatever the available power does not cover goes back.
+        final double energyFactor = Math.max(1.0, chan.transferFactor());
+        final double availablePower = energy.extractAEPower(extractedCount / energyFactor, Actionable.SIMULATE,
+                PowerMultiplier.CONFIG);
+        long affordable = Math.min((long) ((availablePower * energyFactor) + 0.9), extractedCount);
+
+        final IItemList<IAEStack> toInsert = chan.createList();
+        final IItemList<IAEStack> failed = chan.createList();
+        long insertCount = 0;
+        for (final IAEStack s : extracted) {
+            final long size = s.getStackSize();
+            final long insert = Math.min(affordable, size);
+
+            if (insert > 0) {
+                toInsert.add(s.copy().setCraftable(false).setStackSize(insert));
+                insertCount += insert;
+                affordable -= insert;
+            }
+            if (insert < size) {
+                failed.add(s.copy().setCraftable(false).setStackSize(size - insert));
+            }
+        }
 
-                            break;
-                        }
-                    }
-                }
+        if (insertCount > 0) {
+            final IItemList<IAEStack> notInserted = destination.injectItems(toInsert, Actionable.MODULATE,
+                    this.mySrc);
+            for (final IAEStack s : notInserted) {
+                insertCount -= s.getStackSize();
+                failed.add(s);
+            }
+
+            if (insertCount > 0) {
+                energy.extractAEPower(insertCount / energyFactor, Actionable.MODULATE, PowerMultiplier.CONFIG);
             }
-        } while (itemsToMove > 0 && didStuff);
+            itemsToMove -= insertCount;
+        }
+
+        if (!failed.isEmpty()) {
+            src.injectItems(failed, Actionable.MODULATE, this.mySrc);
+        }
 
         return itemsToMove / chan.transferFactor();
     }
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2017, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util;
+
+import java.util.Arrays;
+
+/**
+ * A reusable stack compared by identity, meant for tracking reentrant calls without allocating. Storage only grows when
+ * the initial capacity is exceeded, which nesting that deep should never need.
+ */
+public final class IdentityStack {
+
+    private Object[] elements;
+    private int size;
+
+    public IdentityStack(final int capacity) {
+        this.elements = new Object[capacity];
+    }
+
+    public boolean contains(final Object o) {
+        for (int x = 0; x < this.size; x++) {
+            if (this.elements[x] == o) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void push(final Object o) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.size * 2);
+        }
+        this.elements[this.size++] = o;
+    }
+
+    /**
+     * @return the removed top element, or null if the stack is empty
+     */
+    public Object pop() {
+        if (this.size == 0) {
+            return null;
+        }
+
+        final Object o = this.elements[--this.size];
+        this.elements[this.size] = null;
+        return o;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
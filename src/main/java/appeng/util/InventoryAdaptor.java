@@ -88,4 +88,18 @@ public abstract class InventoryAdaptor implements Iterable<ItemSlot> {
 
     public abstract boolean hasSlots();
 
+    /**
+     * @return the number of slots {@link #getSlot(int)} can read, or -1 if this adaptor can only be iterated as a whole
+     */
+    public int getSlotCount() {
+        return -1;
+    }
+
+    /**
+     * Reads a single slot, only supported if {@link #getSlotCount()} is not negative.
+     */
+    public ItemSlot getSlot(final int slot) {
+        throw new UnsupportedOperationException();
+    }
+
 }
@@ -223,6 +223,20 @@ public class AdaptorItemHandler extends InventoryAdaptor {
         return false;
     }
 
+    @Override
+    public int getSlotCount() {
+        return this.itemHandler.getSlots();
+    }
+
+    @Override
+    public ItemSlot getSlot(final int slot) {
+        final ItemSlot itemSlot = new ItemSlot();
+        itemSlot.setExtractable(!this.itemHandler.extractItem(slot, Integer.MAX_VALUE, true).isEmpty());
+        itemSlot.setItemStack(this.itemHandler.getStackInSlot(slot));
+        itemSlot.setSlot(slot);
+        return itemSlot;
+    }
+
     @Override
     public Iterator<ItemSlot> iterator() {
         return new ItemHandlerIterator(this.itemHandler);
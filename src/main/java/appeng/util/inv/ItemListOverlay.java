@@ -0,0 +1,204 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.inv;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+
+/**
+ * A copy-on-write view of another item list.
+ * <p>
+ * Reads fall through to the base list, the first access to a stack copies it into the local list and all further
+ * reads and writes only affect that copy. Neither the base list nor any overlay below it is modified by this overlay,
+ * so several overlays can share the same base, but the base has to stay unchanged for as long as they are in use.
+ */
+public class ItemListOverlay<T extends IAEStack<T>> implements IItemList<T> {
+
+    private final IItemList<T> base;
+    private final IItemList<T> local;
+    private boolean fullyMaterialized = false;
+
+    public ItemListOverlay(final IItemList<T> base, final IItemList<T> local) {
+        this.base = base;
+        this.local = local;
+    }
+
+    @Override
+    public void add(final T option) {
+        this.materialize(option);
+        this.local.add(option);
+    }
+
+    @Override
+    public T findPrecise(final T i) {
+        this.materialize(i);
+        return this.local.findPrecise(i);
+    }
+
+    @Override
+    public Collection<T> findFuzzy(final T input, final FuzzyMode fuzzy) {
+        if (input != null && !this.fullyMaterialized) {
+            this.forEachBaseFuzzy(input, fuzzy, this::materializeFrom);
+        }
+        return this.local.findFuzzy(input, fuzzy);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        this.materializeAll();
+        return this.local.isEmpty();
+    }
+
+    @Override
+    public void addStorage(final T option) {
+        this.materialize(option);
+        this.local.addStorage(option);
+    }
+
+    @Override
+    public void addCrafting(final T option) {
+        this.materialize(option);
+        this.local.addCrafting(option);
+    }
+
+    @Override
+    public void addRequestable(final T option) {
+        this.materialize(option);
+        this.local.addRequestable(option);
+    }
+
+    @Override
+    public T getFirstItem() {
+        this.materializeAll();
+        return this.local.getFirstItem();
+    }
+
+    @Override
+    public int size() {
+        this.materializeAll();
+        return this.local.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        this.materializeAll();
+        return this.local.iterator();
+    }
+
+    @Override
+    public void resetStatus() {
+        this.materializeAll();
+        this.local.resetStatus();
+    }
+
+    private void materialize(final T what) {
+        if (what == null || this.fullyMaterialized || this.local.findPrecise(what) != null) {
+            return;
+        }
+
+        final T fromBase = this.peekBase(what);
+        if (fromBase != null) {
+            this.local.add(fromBase);
+        }
+    }
+
+    private void materializeFrom(final T fromBase) {
+        if (this.local.findPrecise(fromBase) == null) {
+            this.local.add(fromBase);
+        }
+    }
+
+    private void materializeAll() {
+        if (this.fullyMaterialized) {
+            return;
+        }
+
+        this.forEachBase(this::materializeFrom);
+        this.fullyMaterialized = true;
+    }
+
+    /**
+     * Looks up a stack as seen through this overlay without copying it.
+     */
+    private T peekPrecise(final T what) {
+        final T found = this.local.findPrecise(what);
+        if (found != null || this.fullyMaterialized) {
+            return found;
+        }
+        return this.peekBase(what);
+    }
+
+    private T peekBase(final T what) {
+        if (this.base instanceof ItemListOverlay<T> overlay) {
+            return overlay.peekPrecise(what);
+        }
+        return this.base.findPrecise(what);
+    }
+
+    private void forEachVisible(final Consumer<T> action) {
+        for (final T is : this.local) {
+            action.accept(is);
+        }
+        if (!this.fullyMaterialized) {
+            this.forEachBase(is -> {
+                if (this.local.findPrecise(is) == null) {
+                    action.accept(is);
+                }
+            });
+        }
+    }
+
+    private void forEachBase(final Consumer<T> action) {
+        if (this.base instanceof ItemListOverlay<T> overlay) {
+            overlay.forEachVisible(action);
+        } else {
+            for (final T is : this.base) {
+                action.accept(is);
+            }
+        }
+    }
+
+    private void forEachFuzzy(final T input, final FuzzyMode fuzzy, final Consumer<T> action) {
+        for (final T is : this.local.findFuzzy(input, fuzzy)) {
+            action.accept(is);
+        }
+        if (!this.fullyMaterialized) {
+            this.forEachBaseFuzzy(input, fuzzy, is -> {
+                if (this.local.findPrecise(is) == null) {
+                    action.accept(is);
+                }
+            });
+        }
+    }
+
+    private void forEachBaseFuzzy(final T input, final FuzzyMode fuzzy, final Consumer<T> action) {
+        if (this.base instanceof ItemListOverlay<T> overlay) {
+            overlay.forEachFuzzy(input, fuzzy, action);
+        } else {
+            for (final T is : this.base.findFuzzy(input, fuzzy)) {
+                action.accept(is);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.inv;
+
+import java.util.function.IntConsumer;
+
+import appeng.api.networking.ticking.TickRateModulation;
+import appeng.core.AEConfig;
+
+/**
+ * Moves round-robin over the slots of an inventory, looking at a window of the configured size each tick.
+ */
+public class SlotScanner {
+
+    private int cursor;
+    private boolean lapDone = true;
+
+    /**
+     * Passes the next window of slots to the visitor.
+     *
+     * @param size number of slots in the inventory
+     */
+    public void scan(final int size, final IntConsumer visitor) {
+        final int perTick = AEConfig.instance().getStorageBusScanSlotsPerTick();
+        final int budget = perTick <= 0 ? size : Math.min(size, perTick);
+        for (int x = 0; x < budget; x++) {
+            visitor.accept(this.cursor);
+            this.cursor = (this.cursor + 1) % size;
+        }
+        this.lapDone = budget == size || this.cursor < budget;
+    }
+
+    /**
+     * Starts over at the first slot, after every slot was read anyway.
+     */
+    public void reset() {
+        this.cursor = 0;
+        this.lapDone = true;
+    }
+
+    /**
+     * @return the tick rate to use for a tick without changes
+     */
+    public TickRateModulation getIdleRate() {
+        // keep the pace until every slot of a large inventory was looked at once.
+        return this.lapDone ? TickRateModulation.SLOWER : TickRateModulation.SAME;
+    }
+}
@@ -23,39 +23,218 @@
 
 package appeng.util.item;
 
-import java.util.Map;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.Nonnull;
 
-import com.google.common.collect.MapMaker;
-
 import net.minecraft.item.ItemStack;
 
+/**
+ * Intern table for {@link AESharedItemStack}.
+ * <p>
+ * The table is split into lock-striped segments. Lookups walk the bucket chains without locking and only fall back to
+ * the segment lock on a miss, where the lookup is repeated before a new shared stack is inserted. Buckets compare the
+ * full item, damage and NBT of the candidates, so two different stacks colliding on their hash never share an
+ * instance. Entries only hold their shared stack weakly and are expunged through a {@link ReferenceQueue} once it was
+ * collected.
+ */
 public final class AEItemStackRegistry {
 
     private static final ItemStackHashStrategy HASH_STRATEGY = ItemStackHashStrategy.comparingAllButCount();
-    private static final Map<Integer, AESharedItemStack> REGISTRY = new MapMaker().weakValues().makeMap();
+
+    private static final int SEGMENT_SHIFT = 5;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final Segment[] SEGMENTS = new Segment[SEGMENT_COUNT];
+    private static final ReferenceQueue<AESharedItemStack> QUEUE = new ReferenceQueue<>();
+
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder CONTENDED = new LongAdder();
+    private static final LongAdder EXPUNGED = new LongAdder();
+
+    static {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            SEGMENTS[i] = new Segment();
+        }
+    }
 
     private AEItemStackRegistry() {
     }
 
-    static synchronized AESharedItemStack getRegisteredStack(final @Nonnull ItemStack itemStack) {
+    static AESharedItemStack getRegisteredStack(final @Nonnull ItemStack itemStack) {
         if (itemStack.isEmpty()) {
             throw new IllegalArgumentException("stack cannot be empty");
         }
 
-        var hash = HASH_STRATEGY.hashCode(itemStack);
-        var ret = REGISTRY.get(hash);
+        LOOKUPS.increment();
+
+        final int hash = spread(HASH_STRATEGY.hashCode(itemStack));
+        final Segment segment = segmentFor(hash);
+
+        var ret = segment.find(itemStack, hash);
         if (ret != null) {
+            HITS.increment();
             return ret;
         }
 
-        // computeIfAbsent is not feasible since new AESharedItemStack gets
-        // instantly GC'd when leaving the lambda.
-        var itemStackCopy = itemStack.copy();
-        itemStackCopy.setCount(1);
-        var sharedStack = new AESharedItemStack(itemStackCopy);
-        REGISTRY.put(hash, sharedStack);
-        return sharedStack;
+        expungeStaleEntries();
+
+        if (!segment.tryLock()) {
+            CONTENDED.increment();
+            segment.lock();
+        }
+        try {
+            // Another thread might have interned the same stack since our unlocked lookup.
+            ret = segment.find(itemStack, hash);
+            if (ret != null) {
+                HITS.increment();
+                return ret;
+            }
+
+            var itemStackCopy = itemStack.copy();
+            itemStackCopy.setCount(1);
+            var sharedStack = new AESharedItemStack(itemStackCopy);
+            segment.insert(sharedStack, hash);
+            return sharedStack;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the lookup counters and current size of the registry.
+     */
+    public static Statistics getStatistics() {
+        int size = 0;
+        for (Segment segment : SEGMENTS) {
+            size += segment.count;
+        }
+        return new Statistics(LOOKUPS.sum(), HITS.sum(), CONTENDED.sum(), EXPUNGED.sum(), size);
+    }
+
+    private static void expungeStaleEntries() {
+        Entry stale;
+        while ((stale = (Entry) QUEUE.poll()) != null) {
+            final Segment segment = segmentFor(stale.hash);
+            segment.lock();
+            try {
+                if (segment.remove(stale)) {
+                    EXPUNGED.increment();
+                }
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static Segment segmentFor(int hash) {
+        return SEGMENTS[(hash >>> (32 - SEGMENT_SHIFT)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Lookup counters of the registry. A hit is a lookup which returned an already interned stack, contention counts
+     * the inserts which had to wait for another thread holding the same segment.
+     */
+    public record Statistics(long lookups, long hits, long contended, long expunged, int size) {
+
+        public double hitRate() {
+            return this.lookups == 0 ? 0 : (double) this.hits / this.lookups;
+        }
+    }
+
+    private static final class Entry extends WeakReference<AESharedItemStack> {
+
+        private final int hash;
+        private volatile Entry next;
+
+        private Entry(AESharedItemStack referent, int hash, Entry next) {
+            super(referent, QUEUE);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Writes to a segment are guarded by its lock, readers rely on the volatile table and chain links. Chains are only
+     * ever relinked so that they stay acyclic, a reader racing with a writer may miss an entry but never loops.
+     */
+    private static final class Segment extends ReentrantLock {
+
+        private volatile Entry[] table = new Entry[INITIAL_SEGMENT_CAPACITY];
+        private volatile int count;
+
+        private AESharedItemStack find(ItemStack itemStack, int hash) {
+            final Entry[] tab = this.table;
+            for (Entry e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+                if (e.hash == hash) {
+                    final AESharedItemStack shared = e.get();
+                    if (shared != null && HASH_STRATEGY.equals(shared.getDefinition(), itemStack)) {
+                        return shared;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void insert(AESharedItemStack sharedStack, int hash) {
+            Entry[] tab = this.table;
+            if (this.count + 1 > tab.length * LOAD_FACTOR) {
+                tab = this.resize(tab);
+            }
+            final int idx = hash & (tab.length - 1);
+            tab[idx] = new Entry(sharedStack, hash, tab[idx]);
+            this.count++;
+        }
+
+        private boolean remove(Entry entry) {
+            final Entry[] tab = this.table;
+            final int idx = entry.hash & (tab.length - 1);
+            Entry prev = null;
+            for (Entry e = tab[idx]; e != null; prev = e, e = e.next) {
+                if (e == entry) {
+                    if (prev == null) {
+                        tab[idx] = e.next;
+                    } else {
+                        prev.next = e.next;
+                    }
+                    this.count--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Entry[] resize(Entry[] oldTab) {
+            final Entry[] newTab = new Entry[oldTab.length << 1];
+            final int mask = newTab.length - 1;
+            int live = 0;
+            for (Entry head : oldTab) {
+                Entry e = head;
+                while (e != null) {
+                    final Entry next = e.next;
+                    if (e.get() != null) {
+                        final int idx = e.hash & mask;
+                        e.next = newTab[idx];
+                        newTab[idx] = e;
+                        live++;
+                    }
+                    e = next;
+                }
+            }
+            // Cleared entries were dropped above, they are skipped again once polled from the queue.
+            this.count = live;
+            this.table = newTab;
+            return newTab;
+        }
     }
 }
@@ -18,17 +18,25 @@
 
 package appeng.util.item;
 
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import com.google.common.base.Preconditions;
 
 import net.minecraft.item.ItemStack;
 
 import ic2.api.item.ICustomDamageItem;
-import it.unimi.dsi.fastutil.objects.Object2ObjectAVLTreeMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectSortedMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 
 import appeng.api.config.FuzzyMode;
 import appeng.api.storage.data.IAEItemStack;
@@ -38,99 +46,319 @@ import appeng.util.Platform;
 /**
  * This variant list is optimized for damageable items, and supports selecting durability ranges with
  * {@link #findFuzzy(IAEItemStack, FuzzyMode)}.
+ * <p>
+ * Variants are grouped into one bucket per damage value, and the buckets are kept sorted from most to least damaged.
+ * A fuzzy search only has to binary search the two bounds of its range and then walks the buckets in between. Within a
+ * bucket, variants are ordered by the identity of their item stack, which gives the same order as the former sorted
+ * map.
  */
 class FuzzyItemVariantList extends ItemVariantList {
 
-    static final SharedStackComparator COMPARATOR = new SharedStackComparator();
+    private static final DamageBucket[] NO_BUCKETS = new DamageBucket[0];
 
-    // NOTE: We only use Object as they key here so we can pass our special DamageBounds to the subMap method.
-    // We NEVER put any keys in this map that are not AESharedItemStacks.
-    private final Object2ObjectSortedMap<Object, IAEItemStack> records = new Object2ObjectAVLTreeMap<>(COMPARATOR);
+    private final Reference2ObjectMap<AESharedItemStack, IAEItemStack> records = new Reference2ObjectOpenHashMap<>();
+    private final Records recordsView = new Records();
+
+    /**
+     * Sorted by descending damage, only the first {@link #bucketCount} entries are in use.
+     */
+    private DamageBucket[] buckets = NO_BUCKETS;
+    private int bucketCount;
+    private int modCount;
 
     @Override
     public Collection<IAEItemStack> findFuzzy(final IAEItemStack filter, final FuzzyMode fuzzy) {
         ItemStack itemStack = filter.getDefinition();
 
-        ItemDamageBound lowerBound = makeLowerBound(itemStack, fuzzy);
-        ItemDamageBound upperBound = makeUpperBound(itemStack, fuzzy);
-        Preconditions.checkState(lowerBound.itemDamage > upperBound.itemDamage);
+        final int lowerBound = makeLowerBound(itemStack, fuzzy);
+        final int upperBound = makeUpperBound(itemStack, fuzzy);
+        Preconditions.checkState(lowerBound > upperBound);
 
-        return this.records.subMap(lowerBound, upperBound).values();
+        final int from = this.findFirstBucketAtOrBelow(lowerBound);
+        final int to = this.findFirstBucketAtOrBelow(upperBound);
+
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return new DamageRange(from, to);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     Map<AESharedItemStack, IAEItemStack> getRecords() {
-        // We ensure on our end that we NEVER use anything but AESharedItemStack as the key in this map
-        return (Map<AESharedItemStack, IAEItemStack>) (Object) this.records;
+        return this.recordsView;
     }
 
-    static class ItemDamageBound {
-        final int itemDamage;
+    /**
+     * @return the index of the first bucket with a damage value of at most the given one, or {@link #bucketCount} if
+     *         there is none
+     */
+    private int findFirstBucketAtOrBelow(final int damage) {
+        int low = 0;
+        int high = this.bucketCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (this.buckets[mid].damage > damage) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
 
-        public ItemDamageBound(int itemDamage) {
-            this.itemDamage = itemDamage;
+    private void index(final AESharedItemStack key, final IAEItemStack stack) {
+        final int damage = key.getItemDamage();
+        final int pos = this.findFirstBucketAtOrBelow(damage);
+
+        DamageBucket bucket;
+        if (pos < this.bucketCount && this.buckets[pos].damage == damage) {
+            bucket = this.buckets[pos];
+        } else {
+            if (this.bucketCount == this.buckets.length) {
+                this.buckets = Arrays.copyOf(this.buckets, Math.max(4, this.bucketCount * 2));
+            }
+            System.arraycopy(this.buckets, pos, this.buckets, pos + 1, this.bucketCount - pos);
+            bucket = new DamageBucket(damage);
+            this.buckets[pos] = bucket;
+            this.bucketCount++;
+        }
+
+        bucket.add(key, stack);
+        this.modCount++;
+    }
+
+    private void unindex(final AESharedItemStack key, final IAEItemStack stack) {
+        final int pos = this.findFirstBucketAtOrBelow(key.getItemDamage());
+        if (pos == this.bucketCount || this.buckets[pos].damage != key.getItemDamage()) {
+            return;
         }
+
+        final DamageBucket bucket = this.buckets[pos];
+        if (bucket.remove(key) && bucket.size == 0) {
+            System.arraycopy(this.buckets, pos + 1, this.buckets, pos, this.bucketCount - pos - 1);
+            this.buckets[--this.bucketCount] = null;
+        }
+        this.modCount++;
     }
 
     /**
-     * This comparator creates a strict and total ordering over all {@link AESharedItemStack} of the same item. To
-     * support selecting ranges of durability, it is defined for type {@link Object} and also accepts
-     * {@link ItemDamageBound} as an argument to compare against.
+     * All variants sharing one damage value, ordered by the identity hash of their item stack.
      */
-    static class SharedStackComparator implements Comparator<Object> {
-        @Override
-        public int compare(Object a, Object b) {
-            // Either argument can either be a damage bound or a shared item stack
-            // Since we never put damage bounds into the map as keys, only one
-            // of the two arguments can possibly be a bound
-            ItemDamageBound boundA = null;
-            AESharedItemStack stackA = null;
-            int itemDamageA;
-            if (a instanceof ItemDamageBound) {
-                boundA = (ItemDamageBound) a;
-                itemDamageA = boundA.itemDamage;
-            } else {
-                stackA = (AESharedItemStack) a;
-                itemDamageA = stackA.getItemDamage();
+    private static final class DamageBucket {
+        final int damage;
+        AESharedItemStack[] keys = new AESharedItemStack[2];
+        IAEItemStack[] stacks = new IAEItemStack[2];
+        int size;
+
+        DamageBucket(final int damage) {
+            this.damage = damage;
+        }
+
+        void add(final AESharedItemStack key, final IAEItemStack stack) {
+            if (this.size == this.stacks.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+                this.stacks = Arrays.copyOf(this.stacks, this.size * 2);
             }
-            ItemDamageBound boundB = null;
-            AESharedItemStack stackB = null;
-            int itemDamageB;
-            if (b instanceof ItemDamageBound) {
-                boundB = (ItemDamageBound) b;
-                itemDamageB = boundB.itemDamage;
-            } else {
-                stackB = (AESharedItemStack) b;
-                itemDamageB = stackB.getItemDamage();
+
+            final int identity = identityOf(key);
+            int pos = this.size;
+            while (pos > 0 && identityOf(this.keys[pos - 1]) > identity) {
+                pos--;
             }
 
-            // When either argument is a damage bound, we just compare the damage values because it is used
-            // only to get a certain damage range out of the map.
-            if (boundA != null || boundB != null) {
-                return Integer.compare(itemDamageB, itemDamageA);
+            System.arraycopy(this.keys, pos, this.keys, pos + 1, this.size - pos);
+            System.arraycopy(this.stacks, pos, this.stacks, pos + 1, this.size - pos);
+            this.keys[pos] = key;
+            this.stacks[pos] = stack;
+            this.size++;
+        }
+
+        boolean remove(final AESharedItemStack key) {
+            for (int x = 0; x < this.size; x++) {
+                if (this.keys[x] == key) {
+                    System.arraycopy(this.keys, x + 1, this.keys, x, this.size - x - 1);
+                    System.arraycopy(this.stacks, x + 1, this.stacks, x, this.size - x - 1);
+                    this.size--;
+                    this.keys[this.size] = null;
+                    this.stacks[this.size] = null;
+                    return true;
+                }
             }
+            return false;
+        }
 
-            ItemStack itemStackA = stackA.getDefinition();
-            ItemStack itemStackB = stackB.getDefinition();
-            Preconditions.checkState(itemStackA.getCount() == 1, "ItemStack#getCount() has to be 1");
-            Preconditions.checkArgument(itemStackB.getCount() == 1, "ItemStack#getCount() has to be 1");
+        private static int identityOf(final AESharedItemStack key) {
+            return System.identityHashCode(key.getDefinition());
+        }
+    }
 
-            if (itemStackA == itemStackB) {
-                return 0;
+    /**
+     * A live view over the buckets [from, to). Like the views of the standard collections, it must not be used after
+     * the list was structurally modified, except through the remove method of its own iterator.
+     */
+    private final class DamageRange extends AbstractCollection<IAEItemStack> {
+        private final int from;
+        private int to;
+        private int expectedModCount = FuzzyItemVariantList.this.modCount;
+
+        DamageRange(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int size() {
+            this.checkForComodification();
+            int size = 0;
+            for (int x = this.from; x < this.to; x++) {
+                size += FuzzyItemVariantList.this.buckets[x].size;
             }
+            return size;
+        }
+
+        @Override
+        public Iterator<IAEItemStack> iterator() {
+            this.checkForComodification();
+            return new Iterator<IAEItemStack>() {
+                private int bucket = DamageRange.this.from;
+                private int slot;
+                private boolean canRemove;
+
+                @Override
+                public boolean hasNext() {
+                    DamageRange.this.checkForComodification();
+                    // Buckets are never empty, so only the current one can be exhausted
+                    return this.bucket < DamageRange.this.to
+                            && (this.slot < FuzzyItemVariantList.this.buckets[this.bucket].size
+                                    || this.bucket + 1 < DamageRange.this.to);
+                }
 
-            // Damaged items are sorted before undamaged items
-            final int damageValue = Integer.compare(itemDamageB, itemDamageA);
-            if (damageValue != 0) {
-                return damageValue;
+                @Override
+                public IAEItemStack next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (this.slot == FuzzyItemVariantList.this.buckets[this.bucket].size) {
+                        this.bucket++;
+                        this.slot = 0;
+                    }
+                    this.canRemove = true;
+                    return FuzzyItemVariantList.this.buckets[this.bucket].stacks[this.slot++];
+                }
+
+                @Override
+                public void remove() {
+                    if (!this.canRemove) {
+                        throw new IllegalStateException();
+                    }
+                    DamageRange.this.checkForComodification();
+                    this.canRemove = false;
+
+                    final DamageBucket current = FuzzyItemVariantList.this.buckets[this.bucket];
+                    this.slot--;
+                    // goes through the record map, so the variant is unindexed as well
+                    FuzzyItemVariantList.this.recordsView.remove(current.keys[this.slot]);
+
+                    if (current.size == 0) {
+                        // the emptied bucket was dropped, the next one moved into its place
+                        DamageRange.this.to--;
+                        this.slot = 0;
+                    }
+                    DamageRange.this.expectedModCount = FuzzyItemVariantList.this.modCount;
+                }
+            };
+        }
+
+        private void checkForComodification() {
+            if (this.expectedModCount != FuzzyItemVariantList.this.modCount) {
+                throw new ConcurrentModificationException();
             }
+        }
+    }
+
+    /**
+     * The record map handed to {@link ItemVariantList}, which keeps the damage buckets in sync with every insertion
+     * and removal, including removals through the iterators of its views.
+     */
+    private final class Records extends AbstractMap<AESharedItemStack, IAEItemStack> {
+
+        private final EntrySet entrySet = new EntrySet();
+
+        @Override
+        public IAEItemStack get(final Object key) {
+            return FuzzyItemVariantList.this.records.get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return FuzzyItemVariantList.this.records.containsKey(key);
+        }
+
+        @Override
+        public IAEItemStack put(final AESharedItemStack key, final IAEItemStack value) {
+            final IAEItemStack previous = FuzzyItemVariantList.this.records.put(key, value);
+            if (previous != null) {
+                FuzzyItemVariantList.this.unindex(key, previous);
+            }
+            FuzzyItemVariantList.this.index(key, value);
+            return previous;
+        }
 
-            // As a final tie breaker, order by the object identity of the item stack
-            // While this will order seemingly at random, we only need the order of
-            // damage values to be predictable, while still having to satisfy the
-            // complete order requirements of the sorted map
-            return Long.compare(System.identityHashCode(itemStackA), System.identityHashCode(itemStackB));
+        @Override
+        public IAEItemStack remove(final Object key) {
+            final IAEItemStack previous = FuzzyItemVariantList.this.records.remove(key);
+            if (previous != null) {
+                FuzzyItemVariantList.this.unindex((AESharedItemStack) key, previous);
+            }
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return FuzzyItemVariantList.this.records.size();
+        }
+
+        @Override
+        public Set<Map.Entry<AESharedItemStack, IAEItemStack>> entrySet() {
+            return this.entrySet;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<AESharedItemStack, IAEItemStack>> {
+
+        @Override
+        public Iterator<Map.Entry<AESharedItemStack, IAEItemStack>> iterator() {
+            final Iterator<Map.Entry<AESharedItemStack, IAEItemStack>> parent = FuzzyItemVariantList.this.records
+                    .entrySet().iterator();
+
+            return new Iterator<Map.Entry<AESharedItemStack, IAEItemStack>>() {
+                private AESharedItemStack lastKey;
+                private IAEItemStack lastValue;
+
+                @Override
+                public boolean hasNext() {
+                    return parent.hasNext();
+                }
+
+                @Override
+                public Map.Entry<AESharedItemStack, IAEItemStack> next() {
+                    final Map.Entry<AESharedItemStack, IAEItemStack> entry = parent.next();
+                    this.lastKey = entry.getKey();
+                    this.lastValue = entry.getValue();
+                    return entry;
+                }
+
+                @Override
+                public void remove() {
+                    parent.remove();
+                    FuzzyItemVariantList.this.unindex(this.lastKey, this.lastValue);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return FuzzyItemVariantList.this.records.size();
         }
     }
 
@@ -138,16 +366,16 @@ class FuzzyItemVariantList extends ItemVariantList {
      * Minecraft reverses the damage values. So anything with a damage of 0 is undamaged and increases the more damaged
      * the item is.
      * <p>
-     * Further the used subMap follows [MAX_DAMAGE, MIN_DAMAGE), so to include undamaged items, we have to start with a
-     * lower damage value than 0, while it is fine to use {@link ItemStack#getMaxDamage()} for the upper bound.
+     * Further the searched range follows [MAX_DAMAGE, MIN_DAMAGE), so to include undamaged items, we have to start with
+     * a lower damage value than 0, while it is fine to use {@link ItemStack#getMaxDamage()} for the upper bound.
      */
     private static final int MIN_DAMAGE_VALUE = -1;
 
     /*
      * Keep in mind that the stack order is from most damaged to least damaged, so this lower bound will actually be a
-     * higher number than the upper bound.
+     * higher number than the upper bound. It is inclusive.
      */
-    static ItemDamageBound makeLowerBound(final ItemStack stack, final FuzzyMode fuzzy) {
+    static int makeLowerBound(final ItemStack stack, final FuzzyMode fuzzy) {
         Preconditions.checkState(stack.getItem().isDamageable() || (Platform.isGTDamageableItem(stack.getItem())),
                 "Item#isDamageable() has to be true");
 
@@ -173,14 +401,14 @@ class FuzzyItemVariantList extends ItemVariantList {
             damage = damage <= breakpoint ? breakpoint : maxDamage;
         }
 
-        return new ItemDamageBound(damage);
+        return damage;
     }
 
     /*
      * Keep in mind that the stack order is from most damaged to least damaged, so this upper bound will actually be a
      * lower number than the lower bound. It also is exclusive.
      */
-    static ItemDamageBound makeUpperBound(final ItemStack stack, final FuzzyMode fuzzy) {
+    static int makeUpperBound(final ItemStack stack, final FuzzyMode fuzzy) {
         Preconditions.checkState(stack.getItem().isDamageable() || (Platform.isGTDamageableItem(stack.getItem())),
                 "Item#isDamageable() has to be true");
 
@@ -204,7 +432,7 @@ class FuzzyItemVariantList extends ItemVariantList {
             damage = damage <= breakpoint ? MIN_DAMAGE_VALUE : breakpoint;
         }
 
-        return new ItemDamageBound(damage);
+        return damage;
     }
 
 }
@@ -28,6 +28,11 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.oredict.OreDictionary;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
 import appeng.api.storage.data.IAEItemStack;
 
 public class OreHelper {
@@ -45,7 +50,11 @@ public class OreHelper {
                 }
             });
 
-    private final Map<ItemRef, OreReference> references = new HashMap<>();
+    /**
+     * The ore references of every item seen so far, by item and then by damage. Damageable items are always looked up
+     * with a damage of 0.
+     */
+    private final Reference2ObjectMap<Item, Int2ObjectMap<Optional<OreReference>>> references = new Reference2ObjectOpenHashMap<>();
 
     /**
      * Test if the passed {@link ItemStack} is an ore.
@@ -54,42 +63,51 @@ public class OreHelper {
      * @return true if an ore entry exists, false otherwise
      */
     public Optional<OreReference> getOre(final ItemStack itemStack) {
-        final ItemRef ir = new ItemRef(itemStack);
+        final Item item = itemStack.getItem();
+        final int damage = item.isDamageable() ? 0 : itemStack.getItemDamage();
 
-        if (!this.references.containsKey(ir)) {
-            final OreReference ref = new OreReference();
-            final Collection<Integer> ores = ref.getOres();
-            final Collection<String> set = ref.getEquivalents();
+        Int2ObjectMap<Optional<OreReference>> byDamage = this.references.get(item);
+        if (byDamage == null) {
+            byDamage = new Int2ObjectOpenHashMap<>();
+            this.references.put(item, byDamage);
+        }
 
-            final Set<String> toAdd = new HashSet<>();
+        Optional<OreReference> ref = byDamage.get(damage);
+        if (ref == null) {
+            ref = this.findOre(itemStack);
+            byDamage.put(damage, ref);
+        }
 
-            for (final String ore : OreDictionary.getOreNames()) {
-                // skip ore if it is a match already or null.
-                if (ore == null || toAdd.contains(ore)) {
-                    continue;
-                }
+        return ref;
+    }
 
-                for (final ItemStack oreItem : this.oreDictCache.getUnchecked(ore)) {
-                    if (OreDictionary.itemMatches(oreItem, itemStack, false)) {
-                        toAdd.add(ore);
-                        break;
-                    }
-                }
-            }
+    private Optional<OreReference> findOre(final ItemStack itemStack) {
+        final OreReference ref = new OreReference();
+        final BitSet ores = ref.getOres();
+        final Collection<String> set = ref.getEquivalents();
+
+        final Set<String> toAdd = new HashSet<>();
 
-            for (final String ore : toAdd) {
-                set.add(ore);
-                ores.add(OreDictionary.getOreID(ore));
+        for (final String ore : OreDictionary.getOreNames()) {
+            // skip ore if it is a match already or null.
+            if (ore == null || toAdd.contains(ore)) {
+                continue;
             }
 
-            if (!set.isEmpty()) {
-                this.references.put(ir, ref);
-            } else {
-                this.references.put(ir, null);
+            for (final ItemStack oreItem : this.oreDictCache.getUnchecked(ore)) {
+                if (OreDictionary.itemMatches(oreItem, itemStack, false)) {
+                    toAdd.add(ore);
+                    break;
+                }
             }
         }
 
-        return Optional.ofNullable(this.references.get(ir));
+        for (final String ore : toAdd) {
+            set.add(ore);
+            ores.set(OreDictionary.getOreID(ore));
+        }
+
+        return set.isEmpty() ? Optional.empty() : Optional.of(ref);
     }
 
     boolean sameOre(final AEItemStack aeItemStack, final IAEItemStack is) {
@@ -108,14 +126,7 @@ public class OreHelper {
             return true;
         }
 
-        final Collection<Integer> bOres = b.getOres();
-        for (final Integer ore : a.getOres()) {
-            if (bOres.contains(ore)) {
-                return true;
-            }
-        }
-
-        return false;
+        return a.sharesOre(b);
     }
 
     boolean sameOre(final AEItemStack aeItemStack, final ItemStack o) {
@@ -131,15 +142,15 @@ public class OreHelper {
         }).orElse(false);
     }
 
-    public Set<Integer> getMatchingOre(List<OreDictFilterMatcher.MatchRule> rulesList) {
-        Set<Integer> matchingIds = new HashSet<>();
+    public BitSet getMatchingOre(List<OreDictFilterMatcher.MatchRule> rulesList) {
+        BitSet matchingIds = new BitSet();
 
         for (String ore : OreDictionary.getOreNames()) {
             if (ore == null) {
                 continue;
             }
             if (OreDictFilterMatcher.matches(rulesList, ore)) {
-                matchingIds.add(OreDictionary.getOreID(ore));
+                matchingIds.set(OreDictionary.getOreID(ore));
             }
         }
         return matchingIds;
@@ -148,46 +159,4 @@ public class OreHelper {
     public List<ItemStack> getCachedOres(final String oreName) {
         return this.oreDictCache.getUnchecked(oreName);
     }
-
-    private static class ItemRef {
-
-        private final Item ref;
-        private final int damage;
-        private final int hash;
-
-        ItemRef(final ItemStack stack) {
-            this.ref = stack.getItem();
-
-            if (stack.getItem().isDamageable()) {
-                this.damage = 0; // IGNORED
-            } else {
-                this.damage = stack.getItemDamage(); // might be important...
-            }
-
-            this.hash = this.ref.hashCode() ^ this.damage;
-        }
-
-        @Override
-        public int hashCode() {
-            return this.hash;
-        }
-
-        @Override
-        public boolean equals(final Object obj) {
-            if (obj == null) {
-                return false;
-            }
-            if (this.getClass() != obj.getClass()) {
-                return false;
-            }
-            final ItemRef other = (ItemRef) obj;
-            return this.damage == other.damage && this.ref == other.ref;
-        }
-
-        @Override
-        public String toString() {
-            return "ItemRef [ref=" + this.ref.getTranslationKey() + ", damage=" + this.damage + ", hash=" + this.hash
-                    + ']';
-        }
-    }
 }
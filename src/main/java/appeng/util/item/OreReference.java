@@ -28,7 +28,7 @@ import appeng.api.storage.data.IAEItemStack;
 public class OreReference {
 
     private final List<String> otherOptions = new ArrayList<>();
-    private final Set<Integer> ores = new HashSet<>();
+    private final BitSet ores = new BitSet();
     private List<IAEItemStack> aeOtherOptions = null;
 
     Collection<String> getEquivalents() {
@@ -52,7 +52,15 @@ public class OreReference {
         return this.aeOtherOptions;
     }
 
-    public Collection<Integer> getOres() {
+    /**
+     * @return the ids of all ore dictionary entries this item is registered under, indexed by ore id. Must not be
+     *         modified.
+     */
+    public BitSet getOres() {
         return this.ores;
     }
+
+    public boolean sharesOre(final OreReference other) {
+        return this.ores.intersects(other.ores);
+    }
 }
@@ -1,8 +1,8 @@
 package appeng.util.prioritylist;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import appeng.api.storage.data.IAEStack;
 import appeng.util.item.AEItemStack;
@@ -12,7 +12,7 @@ import appeng.util.item.OreHelper;
 import appeng.util.item.OreReference;
 
 public class OreDictPriorityList<T extends IAEStack<T>> implements IPartitionList<T> {
-    private final Set<Integer> oreIDs;
+    private final BitSet oreIDs;
     private final boolean matchesEmptyOreDict;
 
     public OreDictPriorityList(List<MatchRule> oreMatch) {
@@ -26,12 +26,7 @@ public class OreDictPriorityList<T extends IAEStack<T>> implements IPartitionLis
         if (or == null)
             return matchesEmptyOreDict;
 
-        for (Integer oreID : or.getOres()) {
-            if (this.oreIDs.contains(oreID)) {
-                return true;
-            }
-        }
-        return false;
+        return or.getOres().intersects(this.oreIDs);
     }
 
     @Override